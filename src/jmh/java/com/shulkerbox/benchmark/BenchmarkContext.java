@@ -0,0 +1,80 @@
+package com.shulkerbox.benchmark;
+
+import com.shulkerbox.ShulkerBoxApiApplication;
+import com.shulkerbox.model.Category;
+import com.shulkerbox.model.Product;
+import com.shulkerbox.model.Supplier;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilitários compartilhados pelos benchmarks: sobe a aplicação sem servidor web, no perfil "test"
+ * (H2 em modo PostgreSQL no lugar do banco real), e monta massas de dados em memória.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        SpringApplication app = new SpringApplication(ShulkerBoxApiApplication.class);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        app.setAdditionalProfiles("test");
+        // Sem o log de SQL/binds do application.properties, que dominaria o tempo medido.
+        return app.run("--spring.jpa.show-sql=false",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.springframework.web=WARN");
+    }
+
+    /**
+     * Insere uma categoria, um fornecedor e {@code count} produtos direto via JDBC, devolvendo
+     * os "IDs" da categoria e do fornecedor. Os produtos recebem os "IDs" 1..count.
+     */
+    static long[] seed(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("insert into categories (name) values ('Bench')");
+        long categoryId = jdbc.queryForObject("select max(id) from categories", Long.class);
+        jdbc.update("insert into suppliers (name, cnpj, telefone, email) values ('Bench', '00000000000000', '0', 'b@b')");
+        long supplierId = jdbc.queryForObject("select max(id) from suppliers", Long.class);
+
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{i + 1L, "Produto " + i, "Descrição do produto " + i, 10.0 + i % 100, 1000, categoryId, supplierId});
+        }
+        jdbc.batchUpdate("insert into products (id, name, description, price, quantity_stock, category_id, supplier_id) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        // Mantém a sequence à frente dos "IDs" inseridos manualmente.
+        jdbc.execute("alter sequence products_seq restart with " + (count + 1));
+        return new long[]{categoryId, supplierId};
+    }
+
+    static List<Product> products(int count) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Ferramentas");
+        Supplier supplier = Supplier.builder()
+                .id(1L).name("Fornecedor").cnpj("12345678000199").telefone("11999999999").email("contato@fornecedor.com")
+                .build();
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id(i + 1L)
+                    .name("Produto " + i)
+                    .description("Descrição do produto " + i)
+                    .price(10.0 + i % 100)
+                    .quantityStock(i % 500)
+                    .category(category)
+                    .supplier(supplier)
+                    .build());
+        }
+        return products;
+    }
+}
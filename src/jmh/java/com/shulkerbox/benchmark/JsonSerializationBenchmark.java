@@ -0,0 +1,71 @@
+package com.shulkerbox.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shulkerbox.model.Product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de {@link Product} (com categoria e fornecedor aninhados), isolada e em listas
+ * do tamanho das respostas de listagem. O ObjectMapper é montado como o Spring Boot monta o dos controllers.
+ * O produto isolado fica num estado próprio, sem o parâmetro size, para rodar uma vez só.
+ * Rodar com {@code -prof gc} para ver a alocação por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SingleProduct {
+        private ObjectMapper objectMapper;
+        private Product product;
+
+        @Setup
+        public void setUp() {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            product = BenchmarkContext.products(1).get(0);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProductList {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        private ObjectMapper objectMapper;
+        private List<Product> products;
+
+        @Setup
+        public void setUp() {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            products = BenchmarkContext.products(size);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProduct(SingleProduct state) throws Exception {
+        return state.objectMapper.writeValueAsBytes(state.product);
+    }
+
+    @Benchmark
+    public byte[] serializeList(ProductList state) throws Exception {
+        return state.objectMapper.writeValueAsBytes(state.products);
+    }
+}
@@ -0,0 +1,56 @@
+package com.shulkerbox.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shulkerbox.dto.ProductRequestDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura do corpo de {@code POST/PUT /api/products}: o mesmo JSON que o frontend envia,
+ * convertido em {@link ProductRequestDTO}. Compara o ObjectMapper genérico com um ObjectReader já tipado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductRequestDeserializationBenchmark {
+
+    private static final byte[] BODY = """
+            {"name":"Martelo de unha","description":"Cabo de madeira, 27mm","price":39.9,\
+            "quantityStock":120,"categoryId":3,"supplierId":7}""".getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reader = objectMapper.readerFor(ProductRequestDTO.class);
+    }
+
+    @Benchmark
+    public ProductRequestDTO objectMapper() throws Exception {
+        return objectMapper.readValue(BODY, ProductRequestDTO.class);
+    }
+
+    @Benchmark
+    public ProductRequestDTO objectReader() throws Exception {
+        return reader.readValue(BODY);
+    }
+}
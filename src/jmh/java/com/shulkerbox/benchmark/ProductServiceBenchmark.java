@@ -0,0 +1,76 @@
+package com.shulkerbox.benchmark;
+
+import com.shulkerbox.dto.ProductRequestDTO;
+import com.shulkerbox.model.Product;
+import com.shulkerbox.service.ProductService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos de escrita do {@link ProductService} ({@code update} e {@code updateStock}) com o contexto
+ * Spring completo: transação, Hibernate, cache de categorias/fornecedores e publicação de eventos.
+ * O banco é o H2 em memória, então os números servem para comparar versões do código, não o PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRequestDTO dto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        productService = context.getBean(ProductService.class);
+        long[] ids = BenchmarkContext.seed(context, PRODUCTS);
+
+        dto = new ProductRequestDTO();
+        dto.setName("Produto atualizado");
+        dto.setDescription("Descrição atualizada pelo benchmark");
+        dto.setPrice(42.0);
+        dto.setQuantityStock(100);
+        dto.setCategoryId(ids[0]);
+        dto.setSupplierId(ids[1]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product update() {
+        return productService.update(randomId(), dto, null);
+    }
+
+    @Benchmark
+    public Product updateStock() {
+        return productService.updateStock(randomId(), ThreadLocalRandom.current().nextInt(1, 1000), null, null);
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1);
+    }
+}
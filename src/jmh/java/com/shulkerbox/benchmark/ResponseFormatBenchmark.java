@@ -0,0 +1,112 @@
+package com.shulkerbox.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.shulkerbox.model.Product;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Custo de serializar a listagem de {@link Product} (com categoria e fornecedor aninhados) em cada
+ * formato negociável: JSON, JSON com gzip (como o Tomcat comprime), Smile e CBOR.
+ * O tempo e o tamanho no fio saem juntos no relatório do JMH: os contadores de {@link WireSize}
+ * viram resultados secundários ("wireBytes" e "jsonPercent", a proporção em relação ao JSON sem
+ * compressão).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "cbor"})
+    public String format;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private boolean gzip;
+    private List<Product> products;
+    private int jsonBytes;
+
+    /**
+     * Tamanho da resposta serializada, reportado pelo JMH ao lado do tempo. Contadores EVENTS são
+     * somados entre as threads e as iterações de medição de todos os forks, então cada thread reporta,
+     * em cada iteração, a sua fração do tamanho. Guarda também o buffer de serialização, que é de
+     * cada thread (compartilhado, as threads escreveriam umas por cima das outras).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public double wireBytes;
+        public double jsonPercent;
+        private int reports;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            reports = Math.max(1, params.getForks()) * params.getMeasurement().getCount() * params.getThreads();
+        }
+
+        void record(int bytes, int jsonBytes) {
+            wireBytes = (double) bytes / reports;
+            jsonPercent = 100.0 * bytes / jsonBytes / reports;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "smile" -> builder.factory(new SmileFactory());
+            case "cbor" -> builder.factory(new CBORFactory());
+            default -> { }
+        }
+        objectMapper = builder.build();
+        gzip = format.equals("json-gzip");
+        products = BenchmarkContext.products(size);
+        jsonBytes = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(products).length;
+    }
+
+    @Benchmark
+    public int serializeList(WireSize wireSize) throws IOException {
+        int wireBytes = serialize(wireSize.buffer);
+        wireSize.record(wireBytes, jsonBytes);
+        return wireBytes;
+    }
+
+    private int serialize(ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                objectMapper.writeValue(out, products);
+            }
+        } else {
+            objectMapper.writeValue(buffer, products);
+        }
+        return buffer.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.shulkerbox.benchmark;
+
+import com.shulkerbox.controller.SupplierController;
+import com.shulkerbox.idempotency.IdempotencyCache;
+import com.shulkerbox.model.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de rejeição do {@link SupplierController#save}: cada campo obrigatório ausente lança e captura
+ * uma {@code ResponseStatusException} (com stack trace) antes de montar o corpo de erro.
+ * Nenhum desses casos chega ao serviço, então o controller é usado sem contexto Spring
+ * (sem Idempotency-Key, o IdempotencyCache só repassa a chamada).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupplierValidationBenchmark {
+
+    private SupplierController controller;
+    private MockHttpServletRequest request;
+    private Supplier missingName;
+    private Supplier missingTelefone;
+
+    @Setup
+    public void setUp() {
+        controller = new SupplierController();
+        ReflectionTestUtils.setField(controller, "idempotencyCache", new IdempotencyCache());
+        request = new MockHttpServletRequest("POST", "/api/suppliers");
+        missingName = Supplier.builder().cnpj("12345678000199").telefone("11999999999").build();
+        missingTelefone = Supplier.builder().name("Fornecedor").cnpj("12345678000199").build();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> missingName() {
+        return controller.save(missingName, null, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> missingTelefone() {
+        return controller.save(missingTelefone, null, request);
+    }
+}
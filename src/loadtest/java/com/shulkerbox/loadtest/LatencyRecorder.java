@@ -0,0 +1,56 @@
+package com.shulkerbox.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Amostras de latência (em microssegundos) de uma operação. Cada worker tem as suas instâncias,
+ * então não há sincronização no caminho quente; no fim elas são combinadas com {@link #merge}.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long micros, boolean error) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = micros;
+        if (error) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /** Percentis pelo método "nearest rank"; ordena as amostras, então chamar só no final. */
+    double[] percentilesMillis(double... percentiles) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        double[] result = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (size == 0) {
+                continue;
+            }
+            int rank = (int) Math.ceil(percentiles[i] / 100.0 * size);
+            result[i] = sorted[Math.min(Math.max(rank, 1), size) - 1] / 1000.0;
+        }
+        return result;
+    }
+}
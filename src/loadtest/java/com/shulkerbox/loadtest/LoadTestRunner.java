@@ -0,0 +1,283 @@
+package com.shulkerbox.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shulkerbox.ShulkerBoxApiApplication;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga ponta a ponta: sobe a {@link ShulkerBoxApiApplication} completa numa porta livre,
+ * semeia o banco e dispara tráfego misto (80% leitura) por um número fixo de clientes em laço fechado.
+ * Ao final grava um resumo JSON com vazão, p50/p95/p99 e taxa de erro por endpoint.
+ *
+ * <p>Execução: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--products=100000 --profile=vthreads"}.
+ * Opções ({@code --chave=valor}): products, categories, suppliers, concurrency, duration e warmup (segundos),
+ * profile (perfil Spring extra), db ({@code h2}, padrão, ou {@code local} para o PostgreSQL de
+ * application.properties) e output. Qualquer outro argumento {@code --spring...} vai para a aplicação.
+ */
+public final class LoadTestRunner {
+
+    /** Operações do tráfego misto e seus pesos (somam 100). */
+    enum Operation {
+        GET_PRODUCT(50),
+        LIST_PRODUCTS(30),
+        PATCH_STOCK(12),
+        CREATE_PRODUCT(4),
+        UPDATE_SUPPLIER(4);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick(int roll) {
+            for (Operation operation : values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return GET_PRODUCT;
+        }
+    }
+
+    private final Map<String, String> options;
+    private final List<String> springArgs;
+    private final HttpClient client;
+    private URI baseUri;
+    private LoadTestSeeder.Dataset dataset;
+
+    private LoadTestRunner(Map<String, String> options, List<String> springArgs) {
+        this.options = options;
+        this.springArgs = springArgs;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--shulkerbox.") || arg.startsWith("--server.")) {
+                springArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Argumento não reconhecido: " + arg);
+            }
+        }
+        new LoadTestRunner(options, springArgs).run();
+    }
+
+    private void run() throws Exception {
+        String profile = option("profile", "");
+        boolean embedded = !"local".equals(option("db", "h2"));
+        int products = Integer.parseInt(option("products", "10000"));
+        int concurrency = Integer.parseInt(option("concurrency", "64"));
+        int durationSeconds = Integer.parseInt(option("duration", "60"));
+        int warmupSeconds = Integer.parseInt(option("warmup", "10"));
+        String label = profile.isEmpty() ? "default" : profile;
+
+        List<String> profiles = new ArrayList<>();
+        if (embedded) {
+            profiles.add("test");
+        }
+        if (!profile.isEmpty()) {
+            profiles.add(profile);
+        }
+
+        SpringApplication app = new SpringApplication(ShulkerBoxApiApplication.class);
+        app.setAdditionalProfiles(profiles.toArray(String[]::new));
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // O log de SQL/binds e de requisições do application.properties mediria o console, não a API.
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.springframework.web=WARN"));
+        if (springArgs.stream().noneMatch(arg -> arg.startsWith("--shulkerbox.admission.enabled="))) {
+            // Todos os usuários virtuais saem do mesmo IP: o limite por cliente mediria o balde, não a API
+            args.add("--shulkerbox.admission.enabled=false");
+        }
+        args.addAll(springArgs);
+
+        try (ConfigurableApplicationContext context = app.run(args.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUri = URI.create("http://localhost:" + port);
+
+            long seedStart = System.nanoTime();
+            dataset = new LoadTestSeeder(context.getBean(JdbcTemplate.class)).seed(products,
+                    Integer.parseInt(option("categories", "20")), Integer.parseInt(option("suppliers", "100")));
+            long seedMillis = (System.nanoTime() - seedStart) / 1_000_000;
+            System.out.printf("Semeados %d produtos em %d ms%n", products, seedMillis);
+
+            Map<Operation, LatencyRecorder> totals = drive(concurrency, warmupSeconds, durationSeconds);
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("profile", label);
+            config.put("database", embedded ? "h2" : "local");
+            config.put("products", products);
+            config.put("concurrency", concurrency);
+            config.put("durationSeconds", durationSeconds);
+            config.put("warmupSeconds", warmupSeconds);
+            config.put("seedMillis", seedMillis);
+            writeSummary(config, totals, durationSeconds,
+                    Path.of(option("output", "target/loadtest/summary-" + label + ".json")));
+        }
+    }
+
+    /**
+     * Dispara {@code concurrency} clientes em threads virtuais. As amostras do aquecimento são
+     * descartadas; cada cliente grava nos próprios {@link LatencyRecorder}s, combinados no final.
+     */
+    private Map<Operation, LatencyRecorder> drive(int concurrency, int warmupSeconds, int durationSeconds) throws Exception {
+        long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long deadline = measureFrom + durationSeconds * 1_000_000_000L;
+
+        List<Map<Operation, LatencyRecorder>> perWorker = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+                for (Operation operation : Operation.values()) {
+                    recorders.put(operation, new LatencyRecorder());
+                }
+                perWorker.add(recorders);
+                workers.submit(() -> worker(recorders, measureFrom, deadline));
+            }
+        }
+
+        Map<Operation, LatencyRecorder> totals = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder total = new LatencyRecorder();
+            perWorker.forEach(recorders -> total.merge(recorders.get(operation)));
+            totals.put(operation, total);
+        }
+        return totals;
+    }
+
+    private void worker(Map<Operation, LatencyRecorder> recorders, long measureFrom, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            Operation operation = Operation.pick(random.nextInt(100));
+            HttpRequest request = request(operation, random);
+            boolean error;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                error = response.statusCode() >= 400;
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (now >= measureFrom) {
+                recorders.get(operation).record((System.nanoTime() - now) / 1_000, error);
+            }
+        }
+    }
+
+    private HttpRequest request(Operation operation, ThreadLocalRandom random) {
+        long productId = random.nextLong(dataset.minProductId(), dataset.maxProductId() + 1);
+        return switch (operation) {
+            case GET_PRODUCT -> get("/api/products/" + productId);
+            case LIST_PRODUCTS -> get("/api/products?after=" + productId + "&limit=50");
+            case PATCH_STOCK -> json("PATCH", "/api/products/" + productId + "/stock",
+                    "{\"quantityStock\":" + random.nextInt(0, 1_000) + "}");
+            case CREATE_PRODUCT -> json("POST", "/api/products", String.format(
+                    "{\"name\":\"Produto novo %d\",\"description\":\"Criado durante o teste de carga\",\"price\":%d.90,"
+                            + "\"quantityStock\":%d,\"categoryId\":%d,\"supplierId\":%d}",
+                    random.nextInt(1_000_000), random.nextInt(1, 500), random.nextInt(0, 100),
+                    dataset.categoryIds()[random.nextInt(dataset.categoryIds().length)],
+                    dataset.suppliers().get(random.nextInt(dataset.suppliers().size())).id()));
+            case UPDATE_SUPPLIER -> {
+                LoadTestSeeder.SeededSupplier supplier = dataset.suppliers().get(random.nextInt(dataset.suppliers().size()));
+                yield json("PUT", "/api/suppliers/" + supplier.id(), String.format(
+                        "{\"name\":\"Fornecedor carga %d rev %d\",\"cnpj\":\"%s\",\"telefone\":\"11988887777\",\"email\":\"compras%d@exemplo.com\"}",
+                        supplier.id(), random.nextInt(1_000), supplier.cnpj(), supplier.id()));
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private void writeSummary(Map<String, Object> config, Map<Operation, LatencyRecorder> totals,
+                              int durationSeconds, Path output) throws IOException {
+        long requests = 0;
+        long errors = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-16s %10s %10s %9s %9s %9s %9s%n", "operação", "req", "req/s", "erros%", "p50 ms", "p95 ms", "p99 ms");
+        for (Map.Entry<Operation, LatencyRecorder> entry : totals.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            double[] p = recorder.percentilesMillis(50, 95, 99, 100);
+            double throughput = recorder.count() / (double) durationSeconds;
+            double errorRate = recorder.count() == 0 ? 0 : recorder.errors() / (double) recorder.count();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", recorder.count());
+            stats.put("errors", recorder.errors());
+            stats.put("errorRate", errorRate);
+            stats.put("throughputRps", throughput);
+            stats.put("p50Ms", p[0]);
+            stats.put("p95Ms", p[1]);
+            stats.put("p99Ms", p[2]);
+            stats.put("maxMs", p[3]);
+            endpoints.put(entry.getKey().name(), stats);
+
+            requests += recorder.count();
+            errors += recorder.errors();
+            System.out.printf("%-16s %10d %10.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), recorder.count(),
+                    throughput, errorRate * 100, p[0], p[1], p[2]);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("config", config);
+        summary.put("totalRequests", requests);
+        summary.put("throughputRps", requests / (double) durationSeconds);
+        summary.put("errorRate", requests == 0 ? 0 : errors / (double) requests);
+        summary.put("endpoints", endpoints);
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), summary);
+        System.out.printf("%nResumo gravado em %s%n", output.toAbsolutePath());
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+}
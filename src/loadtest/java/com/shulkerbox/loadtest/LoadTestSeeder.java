@@ -0,0 +1,88 @@
+package com.shulkerbox.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Popula o banco para o teste de carga direto via JDBC em lotes (bem mais rápido que passar pela API),
+ * devolvendo os "IDs" criados para o gerador de tráfego sortear.
+ */
+class LoadTestSeeder {
+
+    private static final int BATCH = 5_000;
+
+    /** Mesmo allocationSize da sequence "products_seq" declarada em Product. */
+    private static final int SEQUENCE_ALLOCATION = 50;
+
+    private final JdbcTemplate jdbc;
+
+    LoadTestSeeder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    record SeededSupplier(long id, String cnpj) {
+    }
+
+    record Dataset(long[] categoryIds, List<SeededSupplier> suppliers, long minProductId, long maxProductId) {
+    }
+
+    Dataset seed(int products, int categories, int suppliers) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            rows.add(new Object[]{"Categoria carga " + i});
+        }
+        jdbc.batchUpdate("insert into categories (name) values (?)", rows);
+        long[] categoryIds = ids("select id from categories where name like 'Categoria carga %' order by id");
+
+        rows.clear();
+        long stamp = System.currentTimeMillis() % 1_000_000;
+        for (int i = 0; i < suppliers; i++) {
+            rows.add(new Object[]{"Fornecedor carga " + i, String.format("%06d%08d", stamp, i), "1199999" + String.format("%04d", i % 10_000), "carga" + i + "@exemplo.com"});
+        }
+        jdbc.batchUpdate("insert into suppliers (name, cnpj, telefone, email) values (?, ?, ?, ?)", rows);
+        List<SeededSupplier> seededSuppliers = jdbc.query(
+                "select id, cnpj from suppliers where name like 'Fornecedor carga %' order by id",
+                (rs, rowNum) -> new SeededSupplier(rs.getLong("id"), rs.getString("cnpj")));
+        long[] supplierIds = seededSuppliers.stream().mapToLong(SeededSupplier::id).toArray();
+
+        Long maxId = jdbc.queryForObject("select max(id) from products", Long.class);
+        long firstId = (maxId == null ? 0 : maxId) + 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        rows.clear();
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{
+                    firstId + i,
+                    "Produto carga " + i,
+                    "Item gerado para o teste de carga número " + i,
+                    Math.round(random.nextDouble(1, 5_000) * 100) / 100.0,
+                    random.nextInt(0, 1_000),
+                    categoryIds[random.nextInt(categoryIds.length)],
+                    supplierIds[random.nextInt(supplierIds.length)]});
+            if (rows.size() == BATCH) {
+                insertProducts(rows);
+                rows.clear();
+            }
+        }
+        insertProducts(rows);
+
+        // Com o otimizador pooled, o valor da sequence é o teto do bloco: reinicia um bloco inteiro acima
+        // do último "ID" semeado para que os POSTs do teste não colidam com ele.
+        long lastId = firstId + products - 1;
+        jdbc.execute("alter sequence products_seq restart with " + (lastId + SEQUENCE_ALLOCATION));
+        return new Dataset(categoryIds, seededSuppliers, firstId, lastId);
+    }
+
+    private void insertProducts(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("insert into products (id, name, description, price, quantity_stock, category_id, supplier_id) "
+                    + "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private long[] ids(String sql) {
+        return jdbc.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+}
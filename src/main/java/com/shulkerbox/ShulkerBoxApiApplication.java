@@ -2,12 +2,16 @@ package com.shulkerbox;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ShulkerBoxApiApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(ShulkerBoxApiApplication.class, args);
+        SpringApplication application = new SpringApplication(ShulkerBoxApiApplication.class);
+        // Guarda as fases da subida (criação de cada bean, refresh do contexto...) para GET /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,276 @@
+package com.shulkerbox.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shulkerbox.config.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controle de admissão das rotas /api: decide, antes do controller, se a requisição entra.
+ *
+ * <p>Três verificações, da mais barata para a mais cara:
+ * <ol>
+ *   <li>balde de fichas por cliente (endereço de origem da conexão, ver clientId): 429 com
+ *       Retry-After até a próxima ficha;</li>
+ *   <li>fila do pool de conexões (threads aguardando no Hikari e no BoundedDataSource): acima do
+ *       limite, 503 imediato, primeiro para as requisições caras e, com a fila ainda maior, para todas;</li>
+ *   <li>limite de requisições simultâneas, separado para caras e baratas: um job que varre a
+ *       listagem completa ocupa só as vagas de requisições caras, e as leituras por "ID" seguem entrando.</li>
+ * </ol>
+ *
+ * <p>Os limites podem ser trocados em tempo de execução (POST /actuator/admission, na porta de
+ * gerenciamento); cada requisição lê o valor atual.
+ */
+@Component
+public class AdmissionControl {
+
+    /** Classe de custo da requisição, que decide qual limite de simultaneidade se aplica. */
+    public enum RequestClass {
+        EXPENSIVE,
+        CHEAP,
+        /** SSE: conexão longa, que não ocupa vaga de simultaneidade (só passa pelo limite por cliente). */
+        STREAM
+    }
+
+    /** Motivo da recusa, com o status e o Retry-After da resposta. */
+    public record Rejection(HttpStatus status, long retryAfterSeconds, String reason, String message) {
+    }
+
+    /**
+     * Resultado de tryAdmit: a recusa (null se admitida) e se a requisição ocupou uma vaga de
+     * simultaneidade, que então deve ser devolvida com release.
+     */
+    public record Decision(Rejection rejection, boolean holdsPermit) {
+
+        private static final Decision ADMITTED = new Decision(null, false);
+        private static final Decision ADMITTED_WITH_PERMIT = new Decision(null, true);
+
+        static Decision reject(Rejection rejection) {
+            return new Decision(rejection, false);
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${shulkerbox.admission.enabled:true}")
+    private boolean enabled;
+    @Value("${shulkerbox.admission.client-rate-per-second:200}")
+    private double clientRatePerSecond;
+    @Value("${shulkerbox.admission.client-burst:400}")
+    private int clientBurst;
+    @Value("${shulkerbox.admission.expensive-concurrency:8}")
+    private int expensiveConcurrency;
+    @Value("${shulkerbox.admission.cheap-concurrency:0}")
+    private int cheapConcurrency;
+    @Value("${shulkerbox.admission.expensive-db-queue-threshold:5}")
+    private int expensiveDbQueueThreshold;
+    @Value("${shulkerbox.admission.cheap-db-queue-threshold:50}")
+    private int cheapDbQueueThreshold;
+    @Value("${shulkerbox.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private volatile AdmissionSettings settings;
+
+    // Baldes de clientes que somem por 10 minutos são descartados
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final AtomicInteger expensiveInFlight = new AtomicInteger();
+    private final AtomicInteger cheapInFlight = new AtomicInteger();
+
+    private HikariDataSource hikari;
+    private BoundedDataSource bounded;
+
+    @PostConstruct
+    void init() throws SQLException {
+        settings = new AdmissionSettings(enabled, clientRatePerSecond, clientBurst, expensiveConcurrency,
+                cheapConcurrency, expensiveDbQueueThreshold, cheapDbQueueThreshold, retryAfterSeconds);
+        bounded = dataSource instanceof BoundedDataSource wrapper ? wrapper : null;
+        hikari = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+
+        Gauge.builder("shulkerbox.admission.in_flight", expensiveInFlight, AtomicInteger::get)
+                .tag("class", "expensive")
+                .description("Requisições caras em andamento").register(meterRegistry);
+        Gauge.builder("shulkerbox.admission.in_flight", cheapInFlight, AtomicInteger::get)
+                .tag("class", "cheap")
+                .description("Requisições baratas em andamento").register(meterRegistry);
+    }
+
+    public AdmissionSettings settings() {
+        return settings;
+    }
+
+    public synchronized AdmissionSettings update(AdmissionSettings changes) {
+        settings = settings.merge(changes);
+        return settings;
+    }
+
+    /**
+     * Listagens completas, consultas filtradas, exportação, importação e lotes são caras;
+     * o feed SSE é uma conexão longa; o resto é barato.
+     */
+    public RequestClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        boolean get = HttpMethod.GET.matches(request.getMethod());
+        if (get && path.equals("/api/products/changes")) {
+            return RequestClass.STREAM;
+        }
+        if (get && (path.equals("/api/products") || path.equals("/api/products/query")
+                || path.equals("/api/products/export") || path.equals("/api/suppliers")
+                || path.equals("/api/categories") || path.equals("/api/stock-movements"))) {
+            return RequestClass.EXPENSIVE;
+        }
+        if (path.equals("/api/products/bulk") || (path.equals("/api/products/stock") && !get)) {
+            return RequestClass.EXPENSIVE;
+        }
+        return RequestClass.CHEAP;
+    }
+
+    /**
+     * Tenta admitir a requisição com os limites em vigor neste momento.
+     */
+    public Decision tryAdmit(HttpServletRequest request, RequestClass requestClass) {
+        AdmissionSettings current = settings;
+        if (!Boolean.TRUE.equals(current.getEnabled())) {
+            return Decision.ADMITTED;
+        }
+
+        if (current.getClientRatePerSecond() > 0) {
+            TokenBucket bucket = buckets.get(clientId(request), key -> new TokenBucket(current.getClientBurst()));
+            long waitNanos = bucket.tryTake(current.getClientRatePerSecond(), current.getClientBurst(), System.nanoTime());
+            if (waitNanos > 0) {
+                return Decision.reject(new Rejection(HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                        "rate_limit", "Limite de requisições por cliente excedido."));
+            }
+        }
+        if (requestClass == RequestClass.STREAM) {
+            return Decision.ADMITTED;
+        }
+
+        int threshold = requestClass == RequestClass.EXPENSIVE ?
+                current.getExpensiveDbQueueThreshold() : current.getCheapDbQueueThreshold();
+        if (threshold > 0 && dbQueueDepth() >= threshold) {
+            return Decision.reject(new Rejection(HttpStatus.SERVICE_UNAVAILABLE, current.getRetryAfterSeconds(),
+                    "db_queue", "Banco de dados sobrecarregado; tente novamente em instantes."));
+        }
+
+        boolean expensive = requestClass == RequestClass.EXPENSIVE;
+        int limit = expensive ? current.getExpensiveConcurrency() : current.getCheapConcurrency();
+        if (!tryAcquire(expensive ? expensiveInFlight : cheapInFlight, limit)) {
+            return Decision.reject(new Rejection(HttpStatus.SERVICE_UNAVAILABLE, current.getRetryAfterSeconds(),
+                    "concurrency", (expensive ? "Muitas requisições caras em andamento" : "Muitas requisições em andamento")
+                            + "; tente novamente em instantes."));
+        }
+        return Decision.ADMITTED_WITH_PERMIT;
+    }
+
+    /**
+     * Devolve a vaga ocupada por uma requisição admitida com holdsPermit.
+     */
+    public void release(RequestClass requestClass) {
+        if (requestClass == RequestClass.EXPENSIVE) {
+            expensiveInFlight.decrementAndGet();
+        } else if (requestClass == RequestClass.CHEAP) {
+            cheapInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Threads aguardando conexão: no Hikari e, no perfil "vthreads", na fila do BoundedDataSource.
+     */
+    public int dbQueueDepth() {
+        int depth = bounded != null ? bounded.getWaiting() : 0;
+        if (hikari != null) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean(); // null até o pool iniciar
+            if (pool != null) {
+                depth += pool.getThreadsAwaitingConnection();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Situação atual, para GET /actuator/admission.
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("settings", settings);
+        status.put("expensiveInFlight", expensiveInFlight.get());
+        status.put("cheapInFlight", cheapInFlight.get());
+        status.put("dbQueueDepth", dbQueueDepth());
+        status.put("trackedClients", buckets.estimatedSize());
+        return status;
+    }
+
+    /**
+     * Cliente da requisição: o endereço de origem. Nada que o próprio cliente envia (como um cabeçalho
+     * com um identificador) entra na chave, senão bastaria trocá-lo a cada requisição para escapar do
+     * limite. Atrás de balanceador, o endereço real vem do X-Forwarded-For só quando a conexão chega de
+     * um proxy confiável (server.forward-headers-strategy e server.tomcat.remoteip.internal-proxies).
+     */
+    public static String clientId(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    // Vaga sempre ocupada, mesmo sem limite (0), para que o release correspondente mantenha a contagem
+    private static boolean tryAcquire(AtomicInteger inFlight, int limit) {
+        while (true) {
+            int current = inFlight.get();
+            if (limit > 0 && current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Balde de fichas de um cliente: repõe rate fichas por segundo até o limite burst.
+     */
+    static final class TokenBucket {
+
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(int burst) {
+            this.tokens = burst;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * Consome uma ficha. Devolve 0 se havia ficha, ou quantos nanossegundos faltam para a próxima.
+         */
+        synchronized long tryTake(double ratePerSecond, int burst, long nowNanos) {
+            tokens = Math.min(Math.max(burst, 1), tokens + (nowNanos - lastRefillNanos) * ratePerSecond / 1e9);
+            lastRefillNanos = nowNanos;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / ratePerSecond * 1e9);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.shulkerbox.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Consulta e ajuste em tempo de execução dos limites do controle de admissão, como endpoint do Actuator
+ * (/actuator/admission). Fica só na porta de gerenciamento (management.server.port), que não é publicada
+ * para os clientes da API, e fora do próprio controle de admissão, então responde mesmo com a API saturada.
+ */
+@Component
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    /**
+     * GET /actuator/admission
+     * Limites em vigor, requisições em andamento por classe e threads aguardando conexão.
+     */
+    @ReadOperation
+    public Map<String, Object> status() {
+        return admissionControl.status();
+    }
+
+    /**
+     * POST /actuator/admission
+     * Altera os limites informados no corpo (os ausentes continuam como estão); vale a partir da
+     * próxima requisição. Não é persistido: na reinicialização voltam os valores de application.properties.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Object> update(@Nullable Boolean enabled, @Nullable Double clientRatePerSecond,
+                                              @Nullable Integer clientBurst, @Nullable Integer expensiveConcurrency,
+                                              @Nullable Integer cheapConcurrency, @Nullable Integer expensiveDbQueueThreshold,
+                                              @Nullable Integer cheapDbQueueThreshold, @Nullable Integer retryAfterSeconds) {
+        AdmissionSettings changes = new AdmissionSettings(enabled, clientRatePerSecond, clientBurst, expensiveConcurrency,
+                cheapConcurrency, expensiveDbQueueThreshold, cheapDbQueueThreshold, retryAfterSeconds);
+        if (negative(clientRatePerSecond) || negative(clientBurst) || negative(expensiveConcurrency)
+                || negative(cheapConcurrency) || negative(expensiveDbQueueThreshold) || negative(cheapDbQueueThreshold)
+                || negative(retryAfterSeconds)) {
+            return new WebEndpointResponse<>(Map.of(
+                    "error", "Os limites não podem ser negativos.",
+                    "timestamp", LocalDateTime.now()
+            ), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(admissionControl.update(changes));
+    }
+
+    private static boolean negative(Number value) {
+        return value != null && value.doubleValue() < 0;
+    }
+}
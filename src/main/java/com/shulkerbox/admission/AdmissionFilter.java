@@ -0,0 +1,110 @@
+package com.shulkerbox.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica o {@link AdmissionControl} às rotas /api antes de chegar aos controllers. Requisições
+ * recusadas recebem 429/503 com Retry-After e o mesmo corpo de erro dos controllers, sem tocar no banco.
+ * O ajuste dos limites fica no Actuator (AdmissionEndpoint), fora das rotas /api.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private AdmissionControl admissionControl;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionControl.RequestClass requestClass = admissionControl.classify(request);
+        AdmissionControl.Decision decision = admissionControl.tryAdmit(request, requestClass);
+        if (decision.rejection() != null) {
+            reject(response, requestClass, decision.rejection());
+            return;
+        }
+        if (!decision.holdsPermit()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Exportação e outras respostas assíncronas só liberam a vaga quando terminam de fato
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admissionControl.release(requestClass);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdmissionControl.RequestClass requestClass,
+                        AdmissionControl.Rejection rejection) throws IOException {
+        Counter.builder("shulkerbox.admission.rejected")
+                .description("Requisições recusadas pelo controle de admissão")
+                .tag("reason", rejection.reason())
+                .tag("class", requestClass.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(rejection.status().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "error", rejection.message(),
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+}
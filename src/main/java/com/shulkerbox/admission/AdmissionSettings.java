@@ -0,0 +1,54 @@
+package com.shulkerbox.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Limites do controle de admissão. Também são os campos do POST /actuator/admission (AdmissionEndpoint,
+ * na porta de gerenciamento): campos ausentes (null) mantêm o valor atual. Limites iguais a 0 desligam a verificação.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionSettings {
+
+    /** Liga ou desliga todo o controle de admissão. */
+    private Boolean enabled;
+
+    /** Requisições por segundo por cliente (reposição do balde de fichas). */
+    private Double clientRatePerSecond;
+
+    /** Tamanho do balde: quantas requisições um cliente pode fazer de uma vez antes do limite por segundo valer. */
+    private Integer clientBurst;
+
+    /** Requisições caras simultâneas (listagens completas, consultas filtradas, exportação, importação, lotes). */
+    private Integer expensiveConcurrency;
+
+    /** Demais requisições simultâneas (leituras por "ID", PATCH de estoque...). */
+    private Integer cheapConcurrency;
+
+    /** Threads esperando conexão a partir das quais requisições caras são recusadas (503). */
+    private Integer expensiveDbQueueThreshold;
+
+    /** Threads esperando conexão a partir das quais todas as requisições são recusadas (503). */
+    private Integer cheapDbQueueThreshold;
+
+    /** Valor do Retry-After das respostas 503. */
+    private Integer retryAfterSeconds;
+
+    /**
+     * Novos limites: os campos informados em changes sobre os atuais.
+     */
+    AdmissionSettings merge(AdmissionSettings changes) {
+        return new AdmissionSettings(
+                changes.enabled != null ? changes.enabled : enabled,
+                changes.clientRatePerSecond != null ? changes.clientRatePerSecond : clientRatePerSecond,
+                changes.clientBurst != null ? changes.clientBurst : clientBurst,
+                changes.expensiveConcurrency != null ? changes.expensiveConcurrency : expensiveConcurrency,
+                changes.cheapConcurrency != null ? changes.cheapConcurrency : cheapConcurrency,
+                changes.expensiveDbQueueThreshold != null ? changes.expensiveDbQueueThreshold : expensiveDbQueueThreshold,
+                changes.cheapDbQueueThreshold != null ? changes.cheapDbQueueThreshold : cheapDbQueueThreshold,
+                changes.retryAfterSeconds != null ? changes.retryAfterSeconds : retryAfterSeconds);
+    }
+}
@@ -0,0 +1,18 @@
+package com.shulkerbox.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita o cache em memória (Caffeine) usado pelos dados de referência: categorias e fornecedores.
+ * Nomes, tamanho máximo e TTL dos caches ficam em application.properties (spring.cache.*).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_PAGES = "categoryPages";
+    public static final String SUPPLIERS = "suppliers";
+    public static final String SUPPLIER_PAGES = "supplierPages";
+}
@@ -16,7 +16,8 @@ public class CorsConfig {
                 registry.addMapping("/**") // Libera todos os endpoints
                         .allowedOrigins("http://localhost:3000") // Libera o front
                         .allowedMethods("GET", "POST", "PUT", "DELETE") // Métodos permitidos
-                        .allowedHeaders("*"); // Permite todos os headers
+                        .allowedHeaders("*") // Permite todos os headers
+                        .exposedHeaders("X-Next-Cursor", "ETag", "Idempotent-Replayed"); // Cursor, versão (If-Match) e repetição idempotente legíveis pelo front
             }
         };
     }
@@ -0,0 +1,40 @@
+package com.shulkerbox.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração do acesso ao pool de conexões.
+ * Com shulkerbox.datasource.bounded-acquisition.enabled=true (ligado no perfil "vthreads"),
+ * o DataSource é envolvido por um BoundedDataSource, que limita a disputa pelo pool.
+ * Só o DataSource da aplicação (bean "dataSource") é envolvido; com réplicas de leitura (ReadReplicaConfig),
+ * os pools do primário e das réplicas ficam por trás dele.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "shulkerbox.datasource.bounded-acquisition.enabled", havingValue = "true")
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource
+                        || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                // Por padrão, uma permissão por conexão do pool
+                int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                return new BoundedDataSource(dataSource,
+                        environment.getProperty("shulkerbox.datasource.bounded-acquisition.max-concurrent", Integer.class, poolSize),
+                        environment.getProperty("shulkerbox.datasource.bounded-acquisition.max-waiting", Integer.class, 500),
+                        environment.getProperty("shulkerbox.datasource.bounded-acquisition.timeout-ms", Long.class, 2000L));
+            }
+        };
+    }
+}
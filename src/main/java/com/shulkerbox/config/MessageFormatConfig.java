@@ -0,0 +1,53 @@
+package com.shulkerbox.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Formatos binários para clientes internos: com "Accept: application/x-jackson-smile" ou
+ * "application/cbor" os controllers respondem (e aceitam corpos) em Smile ou CBOR em vez de JSON.
+ * Clientes que não pedem nada continuam recebendo JSON, que vem primeiro na lista de conversores.
+ *
+ * <p>Os conversores partem do Jackson2ObjectMapperBuilder do Spring Boot, então seguem as mesmas
+ * configurações (spring.jackson.*) e módulos do ObjectMapper usado no JSON. O bean do builder é
+ * prototype: cada conversor recebe o seu, então trocar a factory aqui não afeta o JSON.
+ */
+@Configuration
+public class MessageFormatConfig implements WebMvcConfigurer {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * O formato depende do Accept, mas os ETags não: caches intermediários precisam do Vary para não
+     * entregar Smile a um cliente JSON (o Vary: Accept-Encoding da compressão o Tomcat já coloca).
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
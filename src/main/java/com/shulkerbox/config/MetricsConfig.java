@@ -0,0 +1,56 @@
+package com.shulkerbox.config;
+
+import com.shulkerbox.metrics.RequestStatisticsInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Liga as métricas próprias da aplicação: a contagem de trabalho do Hibernate por requisição
+ * nas rotas /api e, no perfil "vthreads", a fila do BoundedDataSource (o Hikari é medido pelo Spring Boot).
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RequestStatisticsInterceptor requestStatisticsInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestStatisticsInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shulkerbox.datasource.bounded-acquisition.enabled", havingValue = "true")
+    public MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof BoundedDataSource bounded)) {
+                return;
+            }
+            Gauge.builder("shulkerbox.datasource.bounded.active", bounded, BoundedDataSource::getActive)
+                    .description("Conexões em uso liberadas pelo semáforo")
+                    .register(registry);
+            Gauge.builder("shulkerbox.datasource.bounded.waiting", bounded, BoundedDataSource::getWaiting)
+                    .description("Threads aguardando permissão para pegar uma conexão")
+                    .register(registry);
+            Gauge.builder("shulkerbox.datasource.bounded.wait.max", bounded, BoundedDataSource::getMaxWaitMillis)
+                    .description("Maior espera por permissão desde a subida")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            FunctionCounter.builder("shulkerbox.datasource.bounded.acquired", bounded, BoundedDataSource::getAcquiredCount)
+                    .description("Permissões concedidas")
+                    .register(registry);
+            FunctionCounter.builder("shulkerbox.datasource.bounded.rejected", bounded, BoundedDataSource::getRejectedCount)
+                    .description("Pedidos de conexão recusados por fila cheia ou tempo esgotado")
+                    .register(registry);
+        };
+    }
+}
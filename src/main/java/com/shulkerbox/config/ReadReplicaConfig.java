@@ -0,0 +1,80 @@
+package com.shulkerbox.config;
+
+import com.shulkerbox.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura (shulkerbox.datasource.routing.enabled=true): o DataSource da aplicação passa a ser
+ * um LazyConnectionDataSourceProxy sobre o pool do primário, que só pega a conexão física no primeiro
+ * comando, quando já se sabe se a transação é readOnly. Conexões somente leitura vão para o
+ * {@link ReplicaRoutingDataSource}; as demais, para o primário.
+ * <p>
+ * O primário usa spring.datasource.*; cada réplica de replica-urls ganha um pool com as mesmas
+ * configurações do Hikari, criado sem conectar, para que uma réplica fora do ar não impeça a subida.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shulkerbox.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, Environment environment,
+                                                             MeterRegistry meterRegistry) {
+        String username = environment.getProperty("shulkerbox.datasource.routing.replica-username", primaryDataSource.getUsername());
+        String password = environment.getProperty("shulkerbox.datasource.routing.replica-password", primaryDataSource.getPassword());
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(
+                environment.getProperty("shulkerbox.datasource.routing.replica-urls", ""))) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setInitializationFailTimeout(-1);
+            // Réplica que não entrega conexão logo sai do rodízio e a leitura segue no primário
+            replica.setConnectionTimeout(environment.getProperty(
+                    "shulkerbox.datasource.routing.replica-connection-timeout-ms", Long.class, 1000L));
+            if (replica.getMetricsTrackerFactory() == null && replica.getMetricRegistry() == null) {
+                replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                environment.getProperty("shulkerbox.datasource.routing.validation-timeout-seconds", Integer.class, 2),
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,12 @@
+package com.shulkerbox.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas (@Scheduled) da aplicação, como a gravação periódica dos contadores de estoque.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
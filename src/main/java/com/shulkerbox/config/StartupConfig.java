@@ -0,0 +1,49 @@
+package com.shulkerbox.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Inicialização sob demanda (spring.main.lazy-initialization, ligada no perfil "prod"): controllers,
+ * serviços, repositórios e a configuração de documentação só são criados no primeiro uso.
+ * Continuam sendo criados na subida os beans que trabalham por conta própria — com @Scheduled,
+ * ouvintes de eventos (@EventListener e @TransactionalEventListener) ou @PostConstruct que registra
+ * métricas e threads —, pois criados tarde eles deixariam de agendar tarefas, de ouvir eventos ou de expor gauges.
+ * <p>
+ * Também decide se as migrações do Flyway rodam na subida: o treino do arquivo CDS sobe o contexto sem banco e,
+ * com AOT, não dá para tirar o Flyway só desligando spring.flyway.enabled (as condições ficam fixas no build).
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter backgroundBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && worksOnItsOwn(beanType);
+    }
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${shulkerbox.flyway.migrate-on-startup:true}") boolean migrateOnStartup) {
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            }
+        };
+    }
+
+    static boolean worksOnItsOwn(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (ReflectionUtils.MethodFilter) method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)
+                        || method.isAnnotationPresent(PostConstruct.class)).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.shulkerbox.controller;
+
+import com.shulkerbox.search.AutocompleteIndex;
+import com.shulkerbox.search.PrefixIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Autocompletar dos seletores de produto e fornecedor, respondido pelos índices em memória
+ * de {@link AutocompleteIndex}.
+ */
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteController {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    /**
+     * GET /api/autocomplete?type=product|supplier&prefix=...&limit={n}
+     * Até limit (padrão 10, máximo 50) itens com alguma palavra do nome começando pelo prefixo,
+     * sem diferenciar acentos e caixa. Para fornecedores, o prefixo também casa com o CNPJ (com ou sem pontuação).
+     */
+    @GetMapping
+    public ResponseEntity<?> complete(@RequestParam String type,
+                                      @RequestParam(defaultValue = "") String prefix,
+                                      @RequestParam(required = false) Integer limit) {
+        AutocompleteIndex.Type indexType;
+        try {
+            indexType = AutocompleteIndex.Type.valueOf(type.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "Tipo inválido: " + type + " (use product ou supplier)",
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+        int size = limit != null ? Math.min(Math.max(limit, 1), MAX_LIMIT) : DEFAULT_LIMIT;
+        return ResponseEntity.ok(autocompleteIndex.complete(indexType, prefix, size));
+    }
+
+    /**
+     * GET /api/autocomplete/stats
+     * Itens, chaves e memória estimada de cada índice.
+     */
+    @GetMapping("/stats")
+    public Map<String, PrefixIndex.Stats> stats() {
+        return autocompleteIndex.stats();
+    }
+}
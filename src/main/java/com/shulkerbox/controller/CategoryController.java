@@ -1,8 +1,10 @@
 package com.shulkerbox.controller;
 
 
+import com.shulkerbox.dto.CursorPage;
 import com.shulkerbox.model.Category;
 import com.shulkerbox.service.CategoryService;
+import com.shulkerbox.service.EntityTags;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -26,13 +28,17 @@ public class CategoryController {
     private CategoryService categoryService;
 
     /**
-     * GET /api/categories
-     * Recupera todas as categorias
-     * @return Lista de todas as categorias com status HTTP 200
+     * GET /api/categories?after={id}&limit={n}
+     * Recupera as categorias paginadas por cursor
+     * @param after Último "ID" recebido na página anterior (opcional)
+     * @param limit Quantidade máxima de itens (opcional, limitado pelo teto configurado)
+     * @return Página de categorias com status HTTP 200 e o cabeçalho X-Next-Cursor quando houver mais
      */
     @GetMapping// Mapeia requisições HTTP GET para este metodo
-    public List<Category> getAllCategories() {
-        return categoryService.findAll(); // Delega para a camada de serviço
+    public ResponseEntity<List<Category>> getAllCategories(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit) {
+        CursorPage<Category> page = categoryService.findPage(after, limit); // Delega para a camada de serviço
+        return page.toResponseEntity();
     }
 
     /**
@@ -45,7 +51,7 @@ public class CategoryController {
     public ResponseEntity<Category> findById(@PathVariable Long id) {
         Category category = categoryService.findById(id); // Obtém a categoria do serviço
         return category != null ?
-                ResponseEntity.ok(category) : // 200 OK se encontrada
+                ResponseEntity.ok().eTag(EntityTags.of(category.getVersion())).body(category) : // 200 OK (ou 304 com If-None-Match igual)
                 ResponseEntity.notFound().build(); // 404 Not Found se não existir
     }
 
@@ -53,10 +59,17 @@ public class CategoryController {
      * POST /api/categories
      * Cria uma nova categoria
      * @param category O objeto categoria a ser criado (no corpo da requisição)
-     * @return A categoria criada com status HTTP 200
+     * @return A categoria criada com status HTTP 200, ou HTTP 400 se o ponto de reposição for negativo
      */
     @PostMapping // Mapeia requisições HTTP POST
-    public ResponseEntity<Category> save(@RequestBody Category category) {
+    public ResponseEntity<?> save(@RequestBody Category category) {
+        if (category.getDefaultReorderThreshold() != null && category.getDefaultReorderThreshold() < 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "O ponto de reposição não pode ser negativo.",
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
         Category savedCategory = categoryService.save(category); // Salva via serviço
         return ResponseEntity.ok(savedCategory); // Retorna a categoria salva
     }
@@ -68,6 +81,9 @@ public class CategoryController {
             if (category.getName() == null || category.getName().trim().isEmpty()) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O nome da categoria não pode ser vazio.");
             }
+            if (category.getDefaultReorderThreshold() != null && category.getDefaultReorderThreshold() < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O ponto de reposição não pode ser negativo.");
+            }
 
             Category updatedCategory = categoryService.update(id, category);
             return ResponseEntity.ok(updatedCategory); // 200 OK
@@ -0,0 +1,94 @@
+package com.shulkerbox.controller;
+
+import com.shulkerbox.dto.InventoryAggregate;
+import com.shulkerbox.inventory.InventoryAggregates;
+import com.shulkerbox.model.Category;
+import com.shulkerbox.model.Supplier;
+import com.shulkerbox.service.CategoryService;
+import com.shulkerbox.service.SupplierService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totais de estoque para os painéis de gestão, lidos dos contadores de {@link InventoryAggregates}
+ * (nenhuma leitura percorre a tabela de produtos).
+ */
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+    @Autowired
+    private InventoryAggregates inventoryAggregates;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private SupplierService supplierService;
+
+    /**
+     * GET /api/inventory/categories
+     * SKUs, unidades e valor em estoque de cada categoria com produtos.
+     */
+    @GetMapping("/categories")
+    public List<InventoryAggregate> byCategory() {
+        Map<Long, String> names = new HashMap<>();
+        for (Category category : categoryService.findAll()) {
+            names.put(category.getId(), category.getName());
+        }
+        return toResponse(inventoryAggregates.categoryTotals(), names);
+    }
+
+    /**
+     * GET /api/inventory/suppliers
+     * SKUs, unidades e valor em estoque de cada fornecedor com produtos.
+     */
+    @GetMapping("/suppliers")
+    public List<InventoryAggregate> bySupplier() {
+        Map<Long, String> names = new HashMap<>();
+        for (Supplier supplier : supplierService.listAll()) {
+            names.put(supplier.getId(), supplier.getName());
+        }
+        return toResponse(inventoryAggregates.supplierTotals(), names);
+    }
+
+    /**
+     * GET /api/inventory/summary
+     * Totais do catálogo inteiro (soma das categorias).
+     */
+    @GetMapping("/summary")
+    public InventoryAggregate summary() {
+        long skus = 0;
+        long units = 0;
+        double value = 0;
+        for (InventoryAggregates.Totals totals : inventoryAggregates.categoryTotals().values()) {
+            skus += totals.skus();
+            units += totals.units();
+            value += totals.value();
+        }
+        return new InventoryAggregate(null, null, skus, units, money(value));
+    }
+
+    private static List<InventoryAggregate> toResponse(Map<Long, InventoryAggregates.Totals> totals, Map<Long, String> names) {
+        List<InventoryAggregate> result = new ArrayList<>(totals.size());
+        totals.forEach((id, group) -> {
+            if (group.skus() > 0) {
+                result.add(new InventoryAggregate(id, names.get(id), group.skus(), group.units(), money(group.value())));
+            }
+        });
+        result.sort(Comparator.comparing(InventoryAggregate::id));
+        return result;
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -1,24 +1,54 @@
 package com.shulkerbox.controller;
 
+import com.shulkerbox.dto.BulkIngestResult;
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.dto.LowStockItem;
+import com.shulkerbox.dto.ProductFilter;
 import com.shulkerbox.dto.ProductRequestDTO;
+import com.shulkerbox.dto.ProductSearchHit;
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.dto.StockBatchItem;
+import com.shulkerbox.dto.StockDeltaRequest;
 import com.shulkerbox.dto.StockUpdateRequest;
+import com.shulkerbox.feed.ProductChangeFeed;
+import com.shulkerbox.idempotency.IdempotencyCache;
+import com.shulkerbox.inventory.LowStockAlertEngine;
 import com.shulkerbox.model.Category;
 import com.shulkerbox.model.Product;
 import com.shulkerbox.model.Supplier;
-import com.shulkerbox.repository.CategoryRepository;
+import com.shulkerbox.routing.ReadYourWrites;
+import com.shulkerbox.search.ProductSearchIndex;
+import com.shulkerbox.service.CatalogVersion;
+import com.shulkerbox.service.CategoryService;
+import com.shulkerbox.service.EntityTags;
+import com.shulkerbox.service.ProductExportService;
+import com.shulkerbox.service.ProductIngestService;
 import com.shulkerbox.service.ProductService;
+import com.shulkerbox.service.StockBatchService;
 import com.shulkerbox.service.SupplierService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
@@ -29,29 +59,174 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
     @Autowired
     private SupplierService supplierService;
+    @Autowired
+    private ProductExportService productExportService;
+    @Autowired
+    private ProductIngestService productIngestService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+    @Autowired
+    private StockBatchService stockBatchService;
+    @Autowired
+    private LowStockAlertEngine lowStockAlertEngine;
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    @Autowired(required = false) // Só existe com réplicas de leitura
+    private ReadYourWrites readYourWrites;
 
+    /**
+     * GET /api/products?after={id}&limit={n}
+     * Lista produtos paginados por cursor; o cursor da próxima página vem no cabeçalho X-Next-Cursor.
+     * O ETag é a versão do catálogo: com If-None-Match igual, responde 304 sem ir ao banco.
+     * Com réplicas de leitura a versão do catálogo (que só acompanha o primário) não vale para a página
+     * lida da réplica; o ETag sai então das próprias linhas da página.
+     */
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.listAll();
+    public ResponseEntity<List<ProductView>> getAllProducts(@RequestParam(required = false) Long after,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            WebRequest request) {
+        if (readYourWrites != null) {
+            CursorPage<ProductView> page = productService.listPage(after, limit);
+            String eTag = EntityTags.ofViews(page.items(), page.nextCursor());
+            return request.checkNotModified(eTag) ? null : page.toResponseEntity(eTag);
+        }
+        String eTag = catalogVersion.currentTag(); // Lido antes dos dados: no pior caso o corpo é mais novo que o ETag
+        if (request.checkNotModified(eTag)) {
+            return null; // 304 já preparado pelo checkNotModified
+        }
+        return productService.listPage(after, limit).toResponseEntity(eTag);
     }
 
+    /**
+     * GET /api/products/query?categoryId=&supplierId=&minPrice=&maxPrice=&stockBelow=&sort=price&direction=asc&page=0&size=50
+     * Consulta filtrada e ordenada feita no banco, usando os índices de products.
+     * Campos de ordenação aceitos: id, name, price, quantityStock.
+     * Usa o ETag da listagem: a versão do catálogo ou, com réplicas, o das linhas retornadas.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<?> queryProducts(ProductFilter filter, WebRequest request) {
+        try {
+            if (readYourWrites != null) {
+                List<ProductView> rows = productService.query(filter);
+                String eTag = EntityTags.ofViews(rows, null);
+                return request.checkNotModified(eTag) ? null : ResponseEntity.ok().eTag(eTag).body(rows);
+            }
+            String eTag = catalogVersion.currentTag();
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(productService.query(filter));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .body(Map.of(
+                            "error", e.getReason(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * GET /api/products/changes (text/event-stream)
+     * Feed de alterações em Server-Sent Events: criação, atualização, exclusão e estoque, com
+     * "ID", saldo e versão. Substitui o polling da listagem para mostrar o estoque ao vivo.
+     * Na reconexão o navegador envia Last-Event-ID e recebe o que perdeu.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * GET /api/products/low-stock?categoryId=&after={id}&limit={n}
+     * Produtos com estoque abaixo do ponto de reposição (do produto ou da categoria), paginados por
+     * cursor. Vem do conjunto mantido em memória pelo LowStockAlertEngine, sem varrer a tabela.
+     */
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockItem>> getLowStock(@RequestParam(required = false) Long categoryId,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer limit) {
+        return lowStockAlertEngine.lowStock(categoryId, after, limit).toResponseEntity();
+    }
+
+    /**
+     * GET /api/products/search?q={texto}&limit={n}
+     * Busca textual no nome e na descrição (sem diferenciar acentos), ordenada por relevância.
+     * Atendida pelo índice em memória, sem consulta ao banco.
+     */
+    @GetMapping("/search")
+    public List<ProductSearchHit> searchProducts(@RequestParam String q,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+        return productSearchIndex.search(q, Math.max(1, Math.min(limit, 100)));
+    }
+
+    /**
+     * GET /api/products/export?format=ndjson|csv
+     * Exporta o catálogo inteiro em streaming, escrevendo as linhas à medida que são lidas do banco.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format.toLowerCase()) {
+            case "ndjson" -> {
+                body = productExportService::exportNdjson;
+                contentType = MediaType.APPLICATION_NDJSON;
+            }
+            case "csv" -> {
+                body = productExportService::exportCsv;
+                contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            }
+            default -> throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Formato de exportação inválido: " + format + " (use ndjson ou csv)");
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + format.toLowerCase())
+                .body(body);
+    }
+
+    /**
+     * GET /api/products/{id}
+     * O ETag vem da versão do produto; com If-None-Match igual, responde 304 lendo só a versão.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Product product = productService.searchById(id);
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id, WebRequest request) {
+        try {
+            if (request.checkNotModified(productService.currentTag(id))) {
+                return null;
+            }
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+        ProductView product = productService.findView(id);
         return product != null ?
-                ResponseEntity.ok(product) :
+                ResponseEntity.ok().eTag(productService.tagOf(product)).body(product) :
                 ResponseEntity.notFound().build();
     }
 
+    /**
+     * POST /api/products
+     * Com Idempotency-Key, repetições da mesma criação devolvem o produto já criado em vez de duplicá-lo.
+     */
     @PostMapping
-    public ResponseEntity<?> createProduct(@RequestBody ProductRequestDTO dto) {
+    public ResponseEntity<?> createProduct(@RequestBody ProductRequestDTO dto,
+                                           @RequestHeader(value = IdempotencyCache.KEY_HEADER, required = false) String idempotencyKey,
+                                           HttpServletRequest request) {
+        return idempotencyCache.execute(request, idempotencyKey, dto, () -> create(dto));
+    }
+
+    private ResponseEntity<?> create(ProductRequestDTO dto) {
         try {
 
             // Verifica e obtém a categoria
-            Category category = categoryRepository.findById(dto.getCategoryId())
+            Category category = Optional.ofNullable(categoryService.findById(dto.getCategoryId()))
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "Categoria não encontrada com ID: " + dto.getCategoryId()));
 
@@ -66,6 +241,7 @@ public class ProductController {
                     .description(dto.getDescription())
                     .price(dto.getPrice())
                     .quantityStock(dto.getQuantityStock())
+                    .reorderThreshold(ProductService.validReorderThreshold(dto.getReorderThreshold()))
                     .category(category)
                     .supplier(supplier)
                     .build();
@@ -81,12 +257,45 @@ public class ProductController {
         }
     }
 
+    /**
+     * POST /api/products/bulk
+     * Importa produtos em lote a partir de um corpo NDJSON (application/x-ndjson) ou CSV (text/csv).
+     * Linhas inválidas não interrompem a importação: são devolvidas em "errors" com o número da linha.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<?> bulkCreateProducts(HttpServletRequest request) throws IOException {
+        try {
+            MediaType contentType = MediaType.parseMediaType(request.getContentType());
+            BulkIngestResult result = MediaType.APPLICATION_NDJSON.includes(contentType) ?
+                    productIngestService.ingestNdjson(request.getInputStream()) :
+                    productIngestService.ingestCsv(request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .body(Map.of(
+                            "error", e.getReason(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * PUT /api/products/{id}
+     * Aceita If-Match com o ETag lido antes: se o produto mudou nesse meio-tempo, responde 412.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Product> update(@PathVariable Long id, @RequestBody ProductRequestDTO dto) {
-        Product updatedProduct = productService.update(id, dto);
-        return updatedProduct != null ?
-                ResponseEntity.ok(updatedProduct) :
-                ResponseEntity.notFound().build();
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody ProductRequestDTO dto,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Product updatedProduct = productService.update(id, dto, ifMatch);
+            return ResponseEntity.ok().eTag(EntityTags.of(updatedProduct.getVersion())).body(updatedProduct);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (ResponseStatusException e) {
+            return errorResponse(e.getStatusCode(), e.getReason());
+        } catch (OptimisticLockingFailureException e) {
+            return concurrentModification(ifMatch);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -99,13 +308,93 @@ public class ProductController {
         }
     }
 
+    /**
+     * PATCH /api/products/{id}/stock
+     * Define o estoque absoluto; assim como o PUT, respeita If-Match (412 se a versão mudou).
+     * Aceita Idempotency-Key, como as demais alterações de estoque.
+     */
     @PatchMapping("/{id}/stock")
-    public ResponseEntity<Product> updateStock(@PathVariable Long id, @RequestBody StockUpdateRequest request) {
-        Product product = productService.updateStock(id, request.getQuantityStock());
-        return product != null ?
-                ResponseEntity.ok(product) :
-                ResponseEntity.notFound().build();
+    public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestBody StockUpdateRequest request,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @RequestHeader(value = IdempotencyCache.KEY_HEADER, required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        return idempotencyCache.execute(httpRequest, idempotencyKey,
+                Arrays.asList(request.getQuantityStock(), request.getReason(), ifMatch),
+                () -> setStock(id, request, ifMatch));
     }
 
+    private ResponseEntity<?> setStock(Long id, StockUpdateRequest request, String ifMatch) {
+        try {
+            Product product = productService.updateStock(id, request.getQuantityStock(), request.getReason(), ifMatch);
+            return ResponseEntity.ok().eTag(EntityTags.of(product.getVersion())).body(product);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (ResponseStatusException e) {
+            return errorResponse(e.getStatusCode(), e.getReason());
+        } catch (OptimisticLockingFailureException e) {
+            return concurrentModification(ifMatch);
+        }
+    }
 
-}
\ No newline at end of file
+    /**
+     * PATCH /api/products/stock
+     * Conciliação em lote: lista de {id, quantityStock} (absoluto) ou {id, delta}, aplicada numa única
+     * transação. Responde com o resultado de cada item (updated, not_found ou rejected).
+     */
+    @PatchMapping("/stock")
+    public ResponseEntity<?> updateStockBatch(@RequestBody List<StockBatchItem> items,
+                                              @RequestHeader(value = IdempotencyCache.KEY_HEADER, required = false) String idempotencyKey,
+                                              HttpServletRequest request) {
+        return idempotencyCache.execute(request, idempotencyKey, items, () -> {
+            try {
+                return ResponseEntity.ok(stockBatchService.apply(items));
+            } catch (ResponseStatusException e) {
+                return errorResponse(e.getStatusCode(), e.getReason());
+            }
+        });
+    }
+
+    /**
+     * PATCH /api/products/{id}/stock/delta
+     * Soma (ou subtrai, se negativo) o delta ao estoque atual em uma única operação atômica.
+     * Retorna a nova quantidade, 404 se o produto não existe ou 409 se o estoque ficaria negativo.
+     * Como o delta não é idempotente, clientes que repetem em timeout devem mandar Idempotency-Key.
+     */
+    @PatchMapping("/{id}/stock/delta")
+    public ResponseEntity<?> applyStockDelta(@PathVariable Long id, @RequestBody StockDeltaRequest request,
+                                             @RequestHeader(value = IdempotencyCache.KEY_HEADER, required = false) String idempotencyKey,
+                                             HttpServletRequest httpRequest) {
+        return idempotencyCache.execute(httpRequest, idempotencyKey, request, () -> moveStock(id, request));
+    }
+
+    private ResponseEntity<?> moveStock(Long id, StockDeltaRequest request) {
+        try {
+            return ResponseEntity.ok(productService.applyStockDelta(id, request.getDelta(), request.getReason()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .body(Map.of(
+                            "error", e.getReason(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * Outra gravação venceu entre a leitura e o UPDATE versionado: com If-Match é uma pré-condição
+     * que falhou (412); sem ele, um conflito (409) para o cliente reler e tentar de novo.
+     */
+    private ResponseEntity<?> concurrentModification(String ifMatch) {
+        return errorResponse(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT,
+                "O produto foi alterado por outra requisição; leia novamente antes de gravar.");
+    }
+
+    private ResponseEntity<?> errorResponse(HttpStatusCode status, String message) {
+        return ResponseEntity.status(status)
+                .body(Map.of(
+                        "error", message,
+                        "timestamp", LocalDateTime.now()
+                ));
+    }
+}
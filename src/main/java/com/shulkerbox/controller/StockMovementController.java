@@ -0,0 +1,63 @@
+package com.shulkerbox.controller;
+
+import com.shulkerbox.ledger.StockLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Consulta ao histórico de movimentações de estoque.
+ */
+@RestController
+@RequestMapping("/api/stock-movements")
+public class StockMovementController {
+
+    // Limite superior quando "to" não é informado: qualquer movimentação gravada até agora
+    private static final Instant NO_UPPER_BOUND = Instant.parse("9999-12-31T23:59:59Z");
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    /**
+     * GET /api/stock-movements?productId=&from=2024-01-01T00:00:00Z&to=...&after={cursor}&limit={n}
+     * Movimentações no período [from, to), de um produto ou de todos, em ordem cronológica e
+     * paginadas por cursor (X-Next-Cursor, repassado em "after"). As gravações são assíncronas: uma
+     * movimentação pode levar alguns milissegundos para aparecer aqui depois da resposta do PATCH.
+     */
+    @GetMapping
+    public ResponseEntity<?> history(@RequestParam(required = false) Long productId,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                     @RequestParam(required = false) String after,
+                                     @RequestParam(required = false) Integer limit) {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : NO_UPPER_BOUND;
+        if (!start.isBefore(end)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", "\"from\" deve ser anterior a \"to\".",
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+        StockLedger.Cursor cursor;
+        try {
+            cursor = after != null ? StockLedger.Cursor.parse(after) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "error", e.getMessage(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+        return stockLedger.history(productId, start, end, cursor, limit).toResponseEntity();
+    }
+}
@@ -1,10 +1,17 @@
 package com.shulkerbox.controller;
 
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.idempotency.IdempotencyCache;
+import com.shulkerbox.metrics.DomainMetrics;
 import com.shulkerbox.model.Supplier;
+import com.shulkerbox.service.EntityTags;
 import com.shulkerbox.service.SupplierService;
 
 // Importações do Spring
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus; // Manter para HttpStatus.CREATED, etc.
 import org.springframework.http.HttpStatusCode; // <-- NOVA IMPORTAÇÃO E TIPO PARA A VARIÁVEL 'status'
 import org.springframework.http.ResponseEntity;
@@ -13,9 +20,11 @@ import org.springframework.web.server.ResponseStatusException;
 
 // Importações do Jakarta Persistence (JPA)
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 
 // Importações do Java Utilities
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -26,21 +35,40 @@ public class SupplierController {
 
     @Autowired
     private SupplierService supplierService;
+    @Autowired
+    private DomainMetrics domainMetrics;
+    @Autowired
+    private IdempotencyCache idempotencyCache;
 
     @GetMapping
-    public List<Supplier> listAll() {
-        return supplierService.listAll();
+    public ResponseEntity<List<Supplier>> listAll(@RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Integer limit) {
+        CursorPage<Supplier> page = supplierService.listPage(after, limit);
+        return page.toResponseEntity();
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Supplier> findById(@PathVariable Long id) {
+        // Com If-None-Match igual ao ETag, o Spring responde 304 sem serializar o corpo
         return supplierService.findByIdOptional(id)
-                .map(ResponseEntity::ok)
+                .map(supplier -> ResponseEntity.ok().eTag(EntityTags.of(supplier.getVersion())).body(supplier))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * POST /api/suppliers
+     * Com Idempotency-Key, uma repetição recebe o fornecedor já criado em vez de um 409 de CNPJ duplicado.
+     */
     @PostMapping
-    public ResponseEntity<?> save(@RequestBody Supplier supplier) {
+    public ResponseEntity<?> save(@RequestBody Supplier supplier,
+                                  @RequestHeader(value = IdempotencyCache.KEY_HEADER, required = false) String idempotencyKey,
+                                  HttpServletRequest request) {
+        // Campos copiados: o save preenche "ID" e versão no próprio objeto, que deixaria de bater com a repetição
+        List<String> fingerprint = Arrays.asList(supplier.getName(), supplier.getCnpj(), supplier.getTelefone(), supplier.getEmail());
+        return idempotencyCache.execute(request, idempotencyKey, fingerprint, () -> create(supplier));
+    }
+
+    private ResponseEntity<?> create(Supplier supplier) {
         try {
             if (supplier.getName() == null || supplier.getName().trim().isEmpty()) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O nome do fornecedor é obrigatório.");
@@ -63,9 +91,10 @@ public class SupplierController {
                 ResponseStatusException rse = (ResponseStatusException) e;
                 status = rse.getStatusCode(); // rse.getStatusCode() retorna HttpStatusCode
                 message = rse.getReason();
-            } else if (e.getMessage() != null &&
-                    (e.getMessage().contains("ConstraintViolationException") || e.getMessage().contains("DataIntegrityViolationException"))) {
+            } else if (e instanceof DataIntegrityViolationException || (e.getMessage() != null &&
+                    (e.getMessage().contains("ConstraintViolationException") || e.getMessage().contains("DataIntegrityViolationException")))) {
                 status = HttpStatus.CONFLICT;
+                domainMetrics.duplicateCnpj(false);
                 message = "Já existe um fornecedor com este CNPJ ou dados inválidos.";
             }
 
@@ -78,7 +107,8 @@ public class SupplierController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Supplier supplier) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody Supplier supplier,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             if (supplier.getName() == null || supplier.getName().trim().isEmpty()) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O nome do fornecedor é obrigatório para atualização.");
@@ -90,8 +120,8 @@ public class SupplierController {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O telefone do fornecedor é obrigatório para atualização.");
             }
 
-            Supplier updatedSupplier = supplierService.update(id, supplier);
-            return ResponseEntity.ok(updatedSupplier);
+            Supplier updatedSupplier = supplierService.update(id, supplier, ifMatch);
+            return ResponseEntity.ok().eTag(EntityTags.of(updatedSupplier.getVersion())).body(updatedSupplier);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -103,10 +133,15 @@ public class SupplierController {
                 ResponseStatusException rse = (ResponseStatusException) e;
                 status = rse.getStatusCode(); // rse.getStatusCode() retorna HttpStatusCode
                 message = rse.getReason();
-            } else if (e.getMessage() != null &&
-                    (e.getMessage().contains("ConstraintViolationException") || e.getMessage().contains("DataIntegrityViolationException"))) {
+            } else if (e instanceof DataIntegrityViolationException || (e.getMessage() != null &&
+                    (e.getMessage().contains("ConstraintViolationException") || e.getMessage().contains("DataIntegrityViolationException")))) {
                 status = HttpStatus.CONFLICT;
+                domainMetrics.duplicateCnpj(true);
                 message = "Erro de dados: CNPJ duplicado ou campos inválidos.";
+            } else if (e instanceof OptimisticLockingFailureException) {
+                // Outra gravação venceu entre a leitura e o UPDATE versionado
+                status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+                message = "O fornecedor foi alterado por outra requisição; leia novamente antes de gravar.";
             }
 
             return ResponseEntity.status(status)
@@ -0,0 +1,11 @@
+package com.shulkerbox.dto;
+
+/**
+ * Sugestão do autocompletar (GET /api/autocomplete).
+ *
+ * @param id     "ID" do produto ou fornecedor
+ * @param label  nome como cadastrado
+ * @param detail informação extra para desambiguar na lista (CNPJ do fornecedor; null para produtos)
+ */
+public record AutocompleteSuggestion(Long id, String label, String detail) {
+}
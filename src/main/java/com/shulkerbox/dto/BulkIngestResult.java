@@ -0,0 +1,16 @@
+package com.shulkerbox.dto;
+
+import java.util.List;
+
+/**
+ * Resultado da importação em lote de produtos.
+ * errors traz no máximo os primeiros erros por linha; failed tem o total de linhas rejeitadas.
+ */
+public record BulkIngestResult(long received, long inserted, long failed, List<RowError> errors) {
+
+    /**
+     * Erro de uma linha da entrada (row é a posição 1-based do registro, sem contar o cabeçalho do CSV).
+     */
+    public record RowError(long row, String error) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.shulkerbox.dto;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginada por cursor (keyset), em geral sobre o "ID".
+ * O cursor da próxima página é a chave do último item retornado, ou null quando não há mais registros.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Cabeçalho de resposta com o cursor da próxima página (ausente na última página).
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Monta a página a partir de uma consulta que buscou limit + 1 linhas:
+     * a linha extra só serve para saber se existe uma próxima página.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        return ofCursor(rows, limit, row -> String.valueOf(idOf.apply(row)));
+    }
+
+    /**
+     * Mesma montagem, para chaves de ordenação compostas: cursorOf gera o cursor a partir do último item.
+     */
+    public static <T> CursorPage<T> ofCursor(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Ajusta o limite pedido pelo cliente ao intervalo [1, maxLimit].
+     * Sem limite informado, usa o teto (maxLimit) como limite rígido.
+     */
+    public static int clampLimit(Integer requested, int maxLimit) {
+        if (requested == null) {
+            return maxLimit;
+        }
+        return Math.max(1, Math.min(requested, maxLimit));
+    }
+
+    /**
+     * Resposta HTTP 200 com os itens no corpo e o cursor no cabeçalho X-Next-Cursor,
+     * mantendo o corpo como uma lista simples para o front.
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        return toResponseEntity(null);
+    }
+
+    /**
+     * Mesma resposta, com o ETag da coleção (quando informado) para GETs condicionais.
+     */
+    public ResponseEntity<List<T>> toResponseEntity(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
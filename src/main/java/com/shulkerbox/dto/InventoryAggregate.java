@@ -0,0 +1,15 @@
+package com.shulkerbox.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais de estoque de um grupo de produtos (uma categoria, um fornecedor ou o catálogo inteiro).
+ *
+ * @param id         "ID" da categoria ou do fornecedor (null no total geral)
+ * @param name       nome da categoria ou do fornecedor (null no total geral)
+ * @param skuCount   quantidade de produtos
+ * @param totalUnits soma de quantityStock
+ * @param totalValue soma de price * quantityStock, com duas casas
+ */
+public record InventoryAggregate(Long id, String name, long skuCount, long totalUnits, BigDecimal totalValue) {
+}
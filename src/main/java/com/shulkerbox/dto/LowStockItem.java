@@ -0,0 +1,19 @@
+package com.shulkerbox.dto;
+
+import java.time.Instant;
+
+/**
+ * Produto com estoque abaixo do ponto de reposição.
+ *
+ * @param id               "ID" do produto
+ * @param categoryId       "ID" da categoria do produto
+ * @param quantityStock    estoque atual
+ * @param reorderThreshold ponto de reposição em vigor (do produto ou, na falta dele, da categoria)
+ * @param belowSince       quando o estoque cruzou o ponto de reposição
+ */
+public record LowStockItem(Long id, Long categoryId, int quantityStock, int reorderThreshold, Instant belowSince) {
+
+    public LowStockItem withLevels(int quantityStock, int reorderThreshold) {
+        return new LowStockItem(id, categoryId, quantityStock, reorderThreshold, belowSince);
+    }
+}
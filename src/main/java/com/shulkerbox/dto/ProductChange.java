@@ -0,0 +1,16 @@
+package com.shulkerbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Evento compacto do feed de alterações (GET /api/products/changes): só o suficiente para o
+ * front atualizar a linha que já tem na tela, ou recarregá-la se for um produto novo.
+ *
+ * @param type          CREATED, UPDATED, DELETED ou STOCK
+ * @param id            "ID" do produto
+ * @param quantityStock saldo atual (ausente em DELETED)
+ * @param version       versão do produto, a mesma do ETag (ausente em DELETED e no ajuste do modo quente)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductChange(String type, Long id, Integer quantityStock, Long version) {
+}
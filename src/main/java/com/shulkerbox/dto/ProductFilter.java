@@ -0,0 +1,20 @@
+package com.shulkerbox.dto;
+
+import lombok.Data;
+
+/**
+ * Filtros e ordenação da consulta de produtos (GET /api/products/query).
+ * Todos os filtros são opcionais; sort aceita apenas os campos da lista branca do ProductService.
+ */
+@Data
+public class ProductFilter {
+    private Long categoryId;
+    private Long supplierId;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer stockBelow; // Estoque estritamente menor que este valor
+    private String sort = "id";
+    private String direction = "asc";
+    private int page = 0;
+    private Integer size;
+}
@@ -10,4 +10,5 @@ public class ProductRequestDTO {
     private int quantityStock;
     private Long categoryId;
     private Long supplierId;
+    private Integer reorderThreshold; // null = usa o padrão da categoria
 }
@@ -0,0 +1,7 @@
+package com.shulkerbox.dto;
+
+/**
+ * Resultado da busca textual de produtos, em ordem decrescente de relevância (score).
+ */
+public record ProductSearchHit(Long id, String name, double score) {
+}
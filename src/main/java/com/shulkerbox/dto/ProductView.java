@@ -0,0 +1,28 @@
+package com.shulkerbox.dto;
+
+/**
+ * Projeção de leitura do produto: campos do produto mais "ID" e nome da categoria e do fornecedor.
+ * É montada direto pela consulta (select new ...), sem entidades gerenciadas, então não há
+ * carregamento das associações nem dirty-checking na listagem e no detalhe.
+ * A versão do produto acompanha a projeção para que o ETag saia da mesma leitura do corpo.
+ */
+public record ProductView(
+        Long id,
+        String name,
+        String description,
+        Double price,
+        Integer quantityStock,
+        Long categoryId,
+        String categoryName,
+        Long supplierId,
+        String supplierName,
+        Long version) {
+
+    /**
+     * Cópia com outra quantidade em estoque (usada para refletir os deltas pendentes de SKUs quentes).
+     */
+    public ProductView withQuantityStock(Integer quantityStock) {
+        return new ProductView(id, name, description, price, quantityStock,
+                categoryId, categoryName, supplierId, supplierName, version);
+    }
+}
@@ -0,0 +1,15 @@
+package com.shulkerbox.dto;
+
+import lombok.Data;
+
+/**
+ * Item da atualização de estoque em lote: informe quantityStock (valor absoluto) ou delta
+ * (movimentação relativa), nunca os dois, e opcionalmente o motivo.
+ */
+@Data
+public class StockBatchItem {
+    private Long id;
+    private Integer quantityStock;
+    private Integer delta;
+    private String reason; // Opcional, vai para o histórico de movimentações
+}
@@ -0,0 +1,31 @@
+package com.shulkerbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+
+/**
+ * Resultado da atualização de estoque em lote, com uma entrada por item na ordem recebida.
+ */
+public record StockBatchResult(long received, long updated, long notFound, long rejected, List<ItemResult> items) {
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        REJECTED;
+
+        @JsonValue
+        public String json() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Resultado de um item: o saldo após aplicá-lo e a versão final do produto quando atualizado,
+     * ou o motivo quando recusado.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ItemResult(Long id, Status status, Integer quantityStock, Long version, String error) {
+    }
+}
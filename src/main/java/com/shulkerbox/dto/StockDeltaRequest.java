@@ -0,0 +1,12 @@
+package com.shulkerbox.dto;
+
+import lombok.Data;
+
+/**
+ * Movimentação relativa de estoque: positiva para entrada, negativa para saída.
+ */
+@Data
+public class StockDeltaRequest {
+    private int delta;
+    private String reason; // Opcional: venda, perda, devolução... (histórico de movimentações)
+}
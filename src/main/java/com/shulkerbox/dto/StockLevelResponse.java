@@ -0,0 +1,11 @@
+package com.shulkerbox.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Quantidade em estoque de um produto logo após uma movimentação, com a versão resultante.
+ * No modo quente a movimentação fica em memória e a versão não é informada.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StockLevelResponse(Long id, Integer quantityStock, Long version) {
+}
@@ -2,6 +2,7 @@ package com.shulkerbox.dto;
 
 public class StockUpdateRequest {
     private int quantityStock;
+    private String reason; // Opcional: inventário, ajuste... (histórico de movimentações)
 
     public int getQuantityStock() {
         return quantityStock;
@@ -10,4 +11,12 @@ public class StockUpdateRequest {
     public void setQuantityStock(int quantityStock) {
         this.quantityStock = quantityStock;
     }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
 }
@@ -0,0 +1,13 @@
+package com.shulkerbox.event;
+
+import com.shulkerbox.model.Category;
+
+/**
+ * Evento publicado pelo CategoryService depois que uma categoria é criada ou atualizada.
+ * Quem guarda dados derivados da categoria (como o ponto de reposição padrão) reavalia os produtos dela.
+ *
+ * @param categoryId "ID" da categoria alterada
+ * @param category   estado da categoria após a alteração
+ */
+public record CategoryChangedEvent(Long categoryId, Category category) {
+}
@@ -0,0 +1,26 @@
+package com.shulkerbox.event;
+
+import com.shulkerbox.model.Product;
+
+/**
+ * Evento publicado pelo ProductService (e pela importação em lote) depois que um produto é
+ * criado, atualizado ou excluído. Os índices em memória escutam este evento para se manterem
+ * atualizados sem consultar o banco.
+ *
+ * @param type       tipo da alteração
+ * @param productId  "ID" do produto alterado
+ * @param product    estado do produto após a alteração (null em DELETED)
+ * @param stockDelta variação de estoque causada pela alteração: o saldo inicial em CREATED, novo menos
+ *                   anterior em UPDATED e o saldo que sai com o produto (negativo) em DELETED
+ * @param previous   categoria, fornecedor e preço antes da alteração (null em CREATED); o saldo anterior
+ *                   é o atual menos stockDelta
+ */
+public record ProductChangedEvent(ChangeType type, Long productId, Product product, int stockDelta,
+                                  StockValuation previous) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,18 @@
+package com.shulkerbox.event;
+
+/**
+ * Evento publicado pelo ProductService depois que o estoque de um produto muda, seja por valor
+ * absoluto (PATCH /stock) ou por movimentação relativa (PATCH /stock/delta). SKUs no modo quente publicam
+ * um evento por flush, com a soma dos deltas gravados (ver HotStockCounters).
+ * Alterações de estoque feitas pelo PUT completo do produto saem como ProductChangedEvent.
+ *
+ * @param productId     "ID" do produto
+ * @param delta         variação aplicada (novo saldo menos o anterior)
+ * @param quantityStock saldo após a alteração
+ * @param version       versão do produto após a alteração
+ * @param reason        motivo informado pelo cliente (null se não informado), guardado no histórico de movimentações
+ * @param valuation     categoria, fornecedor e preço do produto no momento da alteração
+ */
+public record StockChangedEvent(Long productId, int delta, int quantityStock, Long version, String reason,
+                                StockValuation valuation) {
+}
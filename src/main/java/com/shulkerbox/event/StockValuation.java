@@ -0,0 +1,18 @@
+package com.shulkerbox.event;
+
+import com.shulkerbox.model.Product;
+
+/**
+ * Grupos em que o estoque de um produto é contado e o valor de cada unidade. Vai junto dos eventos
+ * para que os totais de inventário ajustem os grupos afetados sem guardar o estado de cada produto.
+ *
+ * @param categoryId "ID" da categoria do produto
+ * @param supplierId "ID" do fornecedor do produto
+ * @param price      preço unitário
+ */
+public record StockValuation(Long categoryId, Long supplierId, double price) {
+
+    public static StockValuation of(Product product) {
+        return new StockValuation(product.getCategory().getId(), product.getSupplier().getId(), product.getPrice());
+    }
+}
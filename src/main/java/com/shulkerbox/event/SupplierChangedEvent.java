@@ -0,0 +1,13 @@
+package com.shulkerbox.event;
+
+import com.shulkerbox.model.Supplier;
+
+/**
+ * Evento publicado pelo SupplierService depois que um fornecedor é criado, atualizado ou excluído.
+ *
+ * @param type       tipo da alteração (os mesmos de ProductChangedEvent)
+ * @param supplierId "ID" do fornecedor alterado
+ * @param supplier   estado do fornecedor após a alteração (null em DELETED)
+ */
+public record SupplierChangedEvent(ProductChangedEvent.ChangeType type, Long supplierId, Supplier supplier) {
+}
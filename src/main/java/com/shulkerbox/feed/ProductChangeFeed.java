@@ -0,0 +1,249 @@
+package com.shulkerbox.feed;
+
+import com.shulkerbox.dto.ProductChange;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.StockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Feed de alterações de produtos em Server-Sent Events.
+ *
+ * <p>Um único publicador em memória recebe os eventos de domínio (depois do commit) e distribui
+ * para os assinantes. Cada assinante tem uma fila limitada e uma thread virtual que escreve na
+ * conexão; se a fila enche (cliente lento ou parado), o assinante é desconectado em vez de segurar
+ * memória ou atrasar os demais. O EventSource do navegador reconecta sozinho com Last-Event-ID,
+ * e o que ele perdeu é reenviado a partir do buffer circular dos últimos eventos. Se o "ID" pedido
+ * já saiu do buffer, o assinante recebe um evento "reset" e deve recarregar a listagem.
+ */
+@Component
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    private static final Object HEARTBEAT = new Object();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${shulkerbox.changes.history-size:1024}")
+    private int historySize;
+    @Value("${shulkerbox.changes.subscriber-buffer:256}")
+    private int subscriberBuffer;
+    @Value("${shulkerbox.changes.timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${shulkerbox.changes.retry-ms:3000}")
+    private long retryMs;
+
+    /** Prefixo dos "IDs" de evento: um Last-Event-ID de antes de um reinício não vale para este buffer. */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /** Buffer circular dos últimos eventos, protegido pelo monitor de "history". */
+    private final ArrayDeque<Entry> history = new ArrayDeque<>();
+    private long lastId;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private Counter droppedSubscribers;
+
+    private record Entry(long id, ProductChange change) {
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        Gauge.builder("shulkerbox.changes.subscribers", subscribers, List::size)
+                .description("Conexões abertas no feed de alterações")
+                .register(meterRegistry);
+        droppedSubscribers = Counter.builder("shulkerbox.changes.dropped")
+                .description("Assinantes desconectados por não acompanharem o ritmo dos eventos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre uma assinatura. Com lastEventId, reenvia antes os eventos posteriores a ele que ainda
+     * estão no buffer. Reenvio e registro acontecem sob o mesmo lock da publicação, então o
+     * assinante não perde nem recebe em dobro um evento publicado nesse meio-tempo.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberBuffer));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        synchronized (history) {
+            if (lastEventId != null) {
+                long after = sequenceOf(lastEventId);
+                List<Entry> missed = history.stream().filter(entry -> entry.id() > after).toList();
+                boolean gap = after < 0 || after > lastId
+                        || (after < lastId && history.peekFirst().id() > after + 1);
+                if (gap || missed.size() > subscriberBuffer) {
+                    subscriber.queue.offer(Map.of("reason", "history_exceeded"));
+                } else {
+                    subscriber.queue.addAll(missed);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.start();
+        return emitter;
+    }
+
+    /**
+     * Número de sequência de um Last-Event-ID deste processo, ou -1 se for de outro (ou inválido).
+     */
+    private long sequenceOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        boolean deleted = event.type() == ProductChangedEvent.ChangeType.DELETED;
+        publish(new ProductChange(event.type().name(), event.productId(),
+                deleted ? null : event.product().getQuantityStock(),
+                deleted ? null : event.product().getVersion()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        publish(new ProductChange("STOCK", event.productId(), event.quantityStock(), event.version()));
+    }
+
+    void publish(ProductChange change) {
+        synchronized (history) {
+            Entry entry = new Entry(++lastId, change);
+            history.addLast(entry);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(entry)) {
+                    drop(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Comentário periódico na conexão: mantém proxies e balanceadores sem fechar por ociosidade
+     * e faz a escrita falhar (liberando o assinante) quando o cliente já foi embora.
+     */
+    @Scheduled(fixedRateString = "${shulkerbox.changes.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(HEARTBEAT)) {
+                drop(subscriber);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Encerra as conexões no início do desligamento: o shutdown gracioso do servidor espera as
+     * requisições ativas terminarem, e um stream SSE aberto só terminaria pelo timeout.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            droppedSubscribers.increment();
+            log.debug("Assinante do feed de alterações desconectado: fila cheia ({} eventos)", subscriberBuffer);
+            subscriber.stop();
+            // O cliente reconecta com Last-Event-ID e recupera o que perdeu pelo buffer circular
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.stop();
+    }
+
+    /**
+     * Conexão de um assinante: a fila recebe os eventos sem bloquear o publicador e a thread
+     * virtual "sender" faz a escrita (que pode bloquear) na resposta HTTP.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue;
+        private Thread sender;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Object> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private void start() {
+            sender = Thread.ofVirtual().name("product-changes-sse").start(this::run);
+        }
+
+        private void stop() {
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+
+        private void run() {
+            try {
+                emitter.send(SseEmitter.event().reconnectTime(retryMs).comment("conectado"));
+                while (!Thread.currentThread().isInterrupted()) {
+                    Object item = queue.take();
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (item instanceof Entry entry) {
+                        emitter.send(SseEmitter.event()
+                                .id(epoch + "-" + entry.id())
+                                .name("product")
+                                .data(entry.change(), MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event().name("reset").data(item, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou emitter já encerrado
+                remove(this);
+            }
+        }
+    }
+}
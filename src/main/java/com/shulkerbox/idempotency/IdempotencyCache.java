@@ -0,0 +1,191 @@
+package com.shulkerbox.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shulkerbox.admission.AdmissionControl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Suporte ao cabeçalho Idempotency-Key: a primeira requisição com uma chave executa e sua resposta
+ * fica guardada; repetições com a mesma chave (do mesmo cliente, no mesmo método e caminho) recebem a
+ * mesma resposta, com o cabeçalho Idempotent-Replayed, sem executar de novo.
+ *
+ * <p>A entrada é criada antes da execução, com um CompletableFuture ainda aberto: uma repetição que
+ * chega enquanto a original roda espera por ela (até wait-timeout-ms) em vez de gravar em dobro.
+ *
+ * <p>Só respostas 2xx ficam guardadas. Uma tentativa que falhou não gravou nada, então a chave é
+ * liberada e a próxima repetição executa normalmente. Reusar a chave com outro corpo é erro do
+ * cliente (422): do corpo só fica o SHA-256 da sua forma JSON canônica (propriedades em ordem alfabética).
+ * O cache é limitado pelo tamanho estimado das entradas (chave, hash e resposta serializada), não pela
+ * quantidade, e as entradas expiram após ttl.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    // Objetos da entrada no cache (Entry, futuro, nó do Caffeine, array do hash), em bytes
+    private static final int ENTRY_OVERHEAD = 256;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${shulkerbox.idempotency.max-size:64MB}")
+    private DataSize maxSize;
+    @Value("${shulkerbox.idempotency.ttl:24h}")
+    private Duration ttl;
+    @Value("${shulkerbox.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    private Cache<String, Entry> entries;
+    private Counter replays;
+    // Serialização usada no hash do corpo e na estimativa de tamanho da resposta
+    private ObjectMapper canonicalMapper;
+
+    /**
+     * Resposta (futura) de uma chave, o hash do corpo da requisição que a gerou e o tamanho estimado da
+     * resposta (0 enquanto ela não sai).
+     */
+    private record Entry(byte[] fingerprint, CompletableFuture<ResponseEntity<?>> response, int responseBytes) {
+    }
+
+    @PostConstruct
+    void init() {
+        canonicalMapper = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, Entry>weigher((cacheKey, entry) ->
+                        ENTRY_OVERHEAD + 2 * cacheKey.length() + entry.fingerprint().length + entry.responseBytes())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+        replays = Counter.builder("shulkerbox.idempotency.replays")
+                .description("Requisições respondidas com a resposta guardada de uma Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a ação uma única vez por chave. Sem chave, apenas executa.
+     *
+     * @param request     requisição atual (cliente, método e caminho delimitam a chave)
+     * @param key         valor do cabeçalho Idempotency-Key, ou null
+     * @param fingerprint corpo da requisição, comparado pelo hash com o da primeira execução
+     * @param action      execução real do endpoint
+     */
+    public ResponseEntity<?> execute(HttpServletRequest request, String key, Object fingerprint,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, "Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres.");
+        }
+        String cacheKey = AdmissionControl.clientId(request) + " " + request.getMethod() + " "
+                + request.getRequestURI() + " " + key;
+        byte[] hash = hash(fingerprint);
+        Entry mine = new Entry(hash, new CompletableFuture<>(), 0);
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            return replay(existing, hash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.asMap().remove(cacheKey, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            // Regrava com o tamanho da resposta, para o limite do cache contar com ela
+            entries.asMap().replace(cacheKey, mine, new Entry(hash, mine.response(), sizeOf(response.getBody())));
+        } else {
+            entries.asMap().remove(cacheKey, mine); // Quem estava esperando recebe este erro; a próxima tentativa executa
+        }
+        mine.response().complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry existing, byte[] fingerprint) {
+        if (!Arrays.equals(existing.fingerprint(), fingerprint)) {
+            return error(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key já usada com outro corpo de requisição.");
+        }
+        ResponseEntity<?> original;
+        try {
+            original = existing.response().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return error(HttpStatus.CONFLICT, "A requisição original com esta Idempotency-Key ainda está em andamento.");
+        } catch (ExecutionException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "A requisição original com esta Idempotency-Key falhou; tente novamente.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Interrompido aguardando a requisição original.");
+        }
+        replays.increment();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(original.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+    }
+
+    private byte[] hash(Object fingerprint) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(canonicalMapper.writeValueAsBytes(fingerprint));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash do corpo da requisição", e);
+        }
+    }
+
+    private int sizeOf(Object body) {
+        try {
+            return body == null ? 0 : canonicalMapper.writeValueAsBytes(body).length;
+        } catch (JsonProcessingException e) {
+            return 0;
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatusCode status, String message) {
+        return ResponseEntity.status(status)
+                .body(Map.of(
+                        "error", message,
+                        "timestamp", LocalDateTime.now()
+                ));
+    }
+}
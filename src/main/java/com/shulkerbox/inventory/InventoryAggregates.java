@@ -0,0 +1,214 @@
+package com.shulkerbox.inventory;
+
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.event.StockValuation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Totais de estoque (SKUs, unidades e valor) por categoria e por fornecedor, mantidos em memória.
+ *
+ * <p>Só os totais de cada grupo ficam aqui. Cada alteração de produto ou de estoque ajusta os grupos
+ * afetados a partir da categoria, do fornecedor e do preço que vêm no evento (ver StockValuation);
+ * a leitura dos totais custa O(grupos), não O(produtos). Os ajustes são somas, que comutam, e cada
+ * grupo é atualizado atomicamente no próprio mapa, sem trava global.
+ *
+ * <p>De tempos em tempos os totais são conferidos contra um GROUP BY no banco, o que corrige desvios
+ * (gravações feitas por fora da API) e zera o arredondamento do valor acumulado em double. Cada
+ * ajuste carimba o grupo com uma sequência; grupos ajustados depois do início da consulta ficam para a
+ * próxima rodada, porque o evento pode ou não estar no resultado dela.
+ */
+@Component
+public class InventoryAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAggregates.class);
+
+    // Diferença de valor tolerada na conferência, para não contar ruído de ponto flutuante como correção
+    private static final double VALUE_TOLERANCE = 0.005;
+
+    // Rodadas da carga inicial: grupos alterados durante a consulta são conferidos de novo
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private static final String CATEGORY_SQL = "select category_id as group_id, count(*) as skus, sum(quantity_stock) as units, "
+            + "sum(price * quantity_stock) as stock_value from products group by category_id";
+    private static final String SUPPLIER_SQL = "select supplier_id as group_id, count(*) as skus, sum(quantity_stock) as units, "
+            + "sum(price * quantity_stock) as stock_value from products group by supplier_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, Group> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Group> bySupplier = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Counter corrections;
+
+    /** Totais de um grupo. */
+    public record Totals(long skus, long units, double value) {
+
+        private Totals plus(long skus, long units, double value) {
+            return new Totals(this.skus + skus, this.units + units, this.value + value);
+        }
+
+        private boolean sameAs(Totals other) {
+            return skus == other.skus && units == other.units && Math.abs(value - other.value) <= VALUE_TOLERANCE;
+        }
+    }
+
+    /** Totais de um grupo com a sequência do último ajuste aplicado a ele (0 se veio do banco). */
+    private record Group(Totals totals, long touched) {
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        corrections = Counter.builder("shulkerbox.inventory.corrections")
+                .description("Grupos do inventário corrigidos pela conferência com o banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega os totais na subida. Alterações que chegam durante a carga são somadas normalmente;
+     * os grupos que elas tocaram são conferidos de novo logo em seguida.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        int pending = 0;
+        for (int attempt = 0; attempt < LOAD_ATTEMPTS; attempt++) {
+            pending = reconcileGroups(false);
+            if (pending == 0) {
+                break;
+            }
+        }
+        log.info("Inventário carregado: {} categorias, {} fornecedores em {} ms ({} grupos ficaram para a próxima conferência)",
+                byCategory.size(), bySupplier.size(), (System.nanoTime() - start) / 1_000_000, pending);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() != ProductChangedEvent.ChangeType.CREATED && event.previous() != null) {
+            int previousQuantity = event.type() == ProductChangedEvent.ChangeType.DELETED
+                    ? -event.stockDelta()
+                    : event.product().getQuantityStock() - event.stockDelta();
+            adjust(event.previous(), -1, -previousQuantity);
+        }
+        if (event.type() != ProductChangedEvent.ChangeType.DELETED) {
+            adjust(StockValuation.of(event.product()), 1, event.product().getQuantityStock());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.delta() != 0 && event.valuation() != null) {
+            adjust(event.valuation(), 0, event.delta());
+        }
+    }
+
+    public Map<Long, Totals> categoryTotals() {
+        return snapshot(byCategory);
+    }
+
+    public Map<Long, Totals> supplierTotals() {
+        return snapshot(bySupplier);
+    }
+
+    /**
+     * Confere os totais com o banco e corrige os grupos que divergem e não foram ajustados durante a consulta.
+     */
+    @Scheduled(initialDelayString = "${shulkerbox.inventory.reconcile-interval-ms:300000}",
+            fixedDelayString = "${shulkerbox.inventory.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reconcileGroups(true);
+    }
+
+    /** Devolve quantos grupos ficaram para a próxima rodada por terem sido ajustados durante a consulta. */
+    private int reconcileGroups(boolean countCorrections) {
+        long startedAt = sequence.get();
+        Map<Long, Totals> categories = new HashMap<>();
+        Map<Long, Totals> suppliers = new HashMap<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            readGroups(CATEGORY_SQL, categories);
+            readGroups(SUPPLIER_SQL, suppliers);
+        });
+        int[] outcome = new int[2]; // corrigidos, adiados
+        correct("categoria", byCategory, categories, startedAt, outcome);
+        correct("fornecedor", bySupplier, suppliers, startedAt, outcome);
+        if (countCorrections && outcome[0] > 0) {
+            corrections.increment(outcome[0]);
+        }
+        return outcome[1];
+    }
+
+    private void readGroups(String sql, Map<Long, Totals> into) {
+        jdbcTemplate.query(sql, rs -> {
+            into.put(rs.getLong("group_id"), new Totals(rs.getLong("skus"), rs.getLong("units"), rs.getDouble("stock_value")));
+        });
+    }
+
+    private void correct(String kind, ConcurrentHashMap<Long, Group> groups, Map<Long, Totals> stored,
+                         long startedAt, int[] outcome) {
+        Set<Long> ids = new HashSet<>(groups.keySet());
+        ids.addAll(stored.keySet());
+        for (Long id : ids) {
+            Totals truth = stored.get(id);
+            groups.compute(id, (key, current) -> {
+                if (current != null && current.touched() > startedAt) {
+                    outcome[1]++;
+                    return current;
+                }
+                Totals mine = current != null ? current.totals() : null;
+                boolean empty = mine == null || mine.skus() == 0 && mine.units() == 0;
+                if (truth == null ? !empty : mine == null || !mine.sameAs(truth)) {
+                    log.warn("Inventário da {} {} divergente: memória {}, banco {}; corrigido", kind, id, mine, truth);
+                    outcome[0]++;
+                }
+                return truth != null ? new Group(truth, 0) : null;
+            });
+        }
+    }
+
+    private void adjust(StockValuation valuation, long skus, long units) {
+        long touched = sequence.incrementAndGet();
+        double value = units * valuation.price();
+        adjust(byCategory, valuation.categoryId(), skus, units, value, touched);
+        adjust(bySupplier, valuation.supplierId(), skus, units, value, touched);
+    }
+
+    private static void adjust(ConcurrentHashMap<Long, Group> groups, Long id, long skus, long units, double value, long touched) {
+        // Grupos zerados ficam no mapa até a conferência, para que o carimbo não se perca
+        groups.compute(id, (key, current) -> new Group(
+                (current != null ? current.totals() : new Totals(0, 0, 0)).plus(skus, units, value), touched));
+    }
+
+    private static Map<Long, Totals> snapshot(ConcurrentHashMap<Long, Group> groups) {
+        Map<Long, Totals> copy = new HashMap<>(groups.size() * 2);
+        groups.forEach((id, group) -> copy.put(id, group.totals()));
+        return copy;
+    }
+}
@@ -0,0 +1,28 @@
+package com.shulkerbox.inventory;
+
+import com.shulkerbox.dto.LowStockItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Destino padrão dos alertas de estoque baixo: uma linha de log por produto.
+ * Desligado com shulkerbox.low-stock.log-alerts=false.
+ */
+@Component
+@ConditionalOnProperty(name = "shulkerbox.low-stock.log-alerts", havingValue = "true", matchIfMissing = true)
+public class LoggingLowStockAlertSink implements LowStockAlertSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingLowStockAlertSink.class);
+
+    @Override
+    public void onLowStock(List<LowStockItem> items) {
+        for (LowStockItem item : items) {
+            log.warn("Estoque baixo: produto {} (categoria {}) com {} unidades, ponto de reposição {}",
+                    item.id(), item.categoryId(), item.quantityStock(), item.reorderThreshold());
+        }
+    }
+}
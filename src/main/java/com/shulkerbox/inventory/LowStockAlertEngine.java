@@ -0,0 +1,238 @@
+package com.shulkerbox.inventory;
+
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.dto.LowStockItem;
+import com.shulkerbox.event.CategoryChangedEvent;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém em memória o conjunto de produtos com estoque abaixo do ponto de reposição.
+ *
+ * <p>O estado de cada produto (categoria, ponto de reposição próprio e estoque) é carregado na
+ * subida; depois cada evento de produto ou de estoque reavalia só aquele produto, em O(1).
+ * A lista de estoque baixo é lida sem varrer a tabela de produtos.
+ *
+ * <p>Os alertas passam por um debounce: um produto só é enviado aos {@link LowStockAlertSink}
+ * se continuar abaixo do ponto de reposição por debounce-ms, e o mesmo produto não é alertado de
+ * novo antes de repeat-after-ms (evita rajadas quando o estoque oscila em torno do limite).
+ * Produtos que já estavam abaixo na subida entram na lista, mas não geram alerta.
+ */
+@Component
+public class LowStockAlertEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlertEngine.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired(required = false)
+    private List<LowStockAlertSink> sinks = List.of();
+
+    @Value("${shulkerbox.pagination.max-limit:1000}")
+    private int maxLimit;
+    @Value("${shulkerbox.low-stock.debounce-ms:30000}")
+    private long debounceMs;
+    @Value("${shulkerbox.low-stock.repeat-after-ms:3600000}")
+    private long repeatAfterMs;
+
+    // Protegidos pelo monitor desta instância
+    private final Map<Long, Tracked> products = new HashMap<>();
+    private final Map<Long, Integer> categoryDefaults = new HashMap<>();
+    private final Map<Long, Instant> pending = new LinkedHashMap<>();
+    private final Map<Long, Long> lastAlertedAt = new HashMap<>();
+
+    // Lido sem o monitor pelo endpoint
+    private final Map<Long, LowStockItem> lowStock = new ConcurrentHashMap<>();
+
+    private record Tracked(long categoryId, Integer reorderThreshold, int quantity) {
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        Gauge.builder("shulkerbox.stock.low", lowStock, Map::size)
+                .description("Produtos com estoque abaixo do ponto de reposição")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega categorias e produtos na subida, com o monitor tomado para que nenhum evento se perca.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long start = System.nanoTime();
+        products.clear();
+        categoryDefaults.clear();
+        lowStock.clear();
+        pending.clear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.query("select id, default_reorder_threshold from categories "
+                    + "where default_reorder_threshold is not null", rs -> {
+                categoryDefaults.put(rs.getLong("id"), rs.getInt("default_reorder_threshold"));
+            });
+            jdbcTemplate.query("select id, category_id, quantity_stock, reorder_threshold from products", rs -> {
+                long id = rs.getLong("id");
+                Tracked tracked = new Tracked(rs.getLong("category_id"),
+                        rs.getObject("reorder_threshold", Integer.class), rs.getInt("quantity_stock"));
+                products.put(id, tracked);
+                evaluate(id, tracked, false);
+            });
+        });
+        log.info("Estoque baixo carregado: {} de {} produtos abaixo do ponto de reposição em {} ms",
+                lowStock.size(), products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            products.remove(event.productId());
+            clear(event.productId());
+            return;
+        }
+        Product product = event.product();
+        Tracked tracked = new Tracked(product.getCategory().getId(), product.getReorderThreshold(),
+                product.getQuantityStock());
+        products.put(event.productId(), tracked);
+        evaluate(event.productId(), tracked, true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        Tracked tracked = products.get(event.productId());
+        if (tracked == null) {
+            return; // Produto gravado por fora da API depois da carga
+        }
+        // Aplica o delta, que comuta, em vez do saldo absoluto: eventos concorrentes podem chegar fora de ordem
+        tracked = new Tracked(tracked.categoryId(), tracked.reorderThreshold(), tracked.quantity() + event.delta());
+        products.put(event.productId(), tracked);
+        evaluate(event.productId(), tracked, true);
+    }
+
+    /**
+     * Mudança do ponto de reposição padrão: reavalia os produtos da categoria que não têm o seu.
+     * Percorre os produtos em memória, o que é aceitável para uma alteração administrativa rara.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        Integer threshold = event.category().getDefaultReorderThreshold();
+        Integer previous = threshold != null ?
+                categoryDefaults.put(event.categoryId(), threshold) : categoryDefaults.remove(event.categoryId());
+        if (Objects.equals(previous, threshold)) {
+            return;
+        }
+        products.forEach((id, tracked) -> {
+            if (tracked.categoryId() == event.categoryId() && tracked.reorderThreshold() == null) {
+                evaluate(id, tracked, true);
+            }
+        });
+    }
+
+    /**
+     * Página de produtos abaixo do ponto de reposição, em ordem de "ID", a partir do cursor "after".
+     * Custa O(produtos com estoque baixo), não O(produtos).
+     */
+    public CursorPage<LowStockItem> lowStock(Long categoryId, Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit, maxLimit);
+        long cursor = after != null ? after : 0L;
+        List<LowStockItem> rows = lowStock.values().stream()
+                .filter(item -> item.id() > cursor)
+                .filter(item -> categoryId == null || categoryId.equals(item.categoryId()))
+                .sorted(Comparator.comparing(LowStockItem::id))
+                .limit(pageSize + 1L)
+                .toList();
+        return CursorPage.of(rows, pageSize, LowStockItem::id);
+    }
+
+    /**
+     * Envia aos destinos os produtos que cruzaram o ponto de reposição há pelo menos debounce-ms
+     * e continuam abaixo dele.
+     */
+    @Scheduled(fixedDelayString = "${shulkerbox.low-stock.debounce-ms:30000}")
+    public void flushAlerts() {
+        List<LowStockItem> due = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<Long, Instant>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Instant> entry = iterator.next();
+                if (entry.getValue().toEpochMilli() > now - debounceMs) {
+                    continue;
+                }
+                iterator.remove();
+                Long last = lastAlertedAt.get(entry.getKey());
+                LowStockItem item = lowStock.get(entry.getKey());
+                if (item != null && (last == null || last <= now - repeatAfterMs)) {
+                    lastAlertedAt.put(entry.getKey(), now);
+                    due.add(item);
+                }
+            }
+            lastAlertedAt.values().removeIf(last -> last <= now - repeatAfterMs);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        for (LowStockAlertSink sink : sinks) {
+            try {
+                sink.onLowStock(due);
+            } catch (RuntimeException e) {
+                log.error("Falha ao enviar {} alertas de estoque baixo para {}", due.size(), sink.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void evaluate(long id, Tracked tracked, boolean alert) {
+        Integer threshold = tracked.reorderThreshold() != null ?
+                tracked.reorderThreshold() : categoryDefaults.get(tracked.categoryId());
+        if (threshold == null || tracked.quantity() >= threshold) {
+            clear(id);
+            return;
+        }
+        LowStockItem current = lowStock.get(id);
+        if (current != null && current.categoryId() == tracked.categoryId()) {
+            lowStock.put(id, current.withLevels(tracked.quantity(), threshold));
+            return;
+        }
+        Instant now = Instant.now();
+        lowStock.put(id, new LowStockItem(id, tracked.categoryId(), tracked.quantity(), threshold, now));
+        if (alert && current == null) {
+            pending.put(id, now);
+        }
+    }
+
+    private void clear(long id) {
+        lowStock.remove(id);
+        pending.remove(id);
+    }
+}
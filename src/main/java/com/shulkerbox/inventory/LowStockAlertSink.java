@@ -0,0 +1,18 @@
+package com.shulkerbox.inventory;
+
+import com.shulkerbox.dto.LowStockItem;
+
+import java.util.List;
+
+/**
+ * Destino dos alertas de estoque baixo. Basta registrar um bean que implemente esta interface
+ * (fila, e-mail, webhook...) para recebê-los; todos os destinos registrados são chamados.
+ */
+public interface LowStockAlertSink {
+
+    /**
+     * Recebe os produtos que cruzaram o ponto de reposição e continuam abaixo dele depois da
+     * janela de debounce. Chamado fora de qualquer transação, pela thread do agendador.
+     */
+    void onLowStock(List<LowStockItem> items);
+}
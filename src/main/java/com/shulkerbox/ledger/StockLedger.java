@@ -0,0 +1,274 @@
+package com.shulkerbox.ledger;
+
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.model.StockMovement;
+import com.shulkerbox.repository.StockMovementRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Histórico de movimentações de estoque (stock_movements), alimentado pelos eventos de estoque e
+ * de produto depois do commit.
+ *
+ * <p>A requisição só enfileira a movimentação; uma thread própria esvazia a fila e grava em lotes
+ * com batchUpdate (com reWriteBatchedInserts o driver do PostgreSQL junta o lote em INSERTs de
+ * várias linhas). Quanto mais movimentações chegam, maiores os lotes, sem espera artificial.
+ *
+ * <p>A fila é limitada. Se encher (banco lento ou fora), a movimentação é gravada na própria
+ * thread da requisição: o histórico não perde registros, e a latência só aumenta quando a
+ * gravação em segundo plano já não está dando conta.
+ *
+ * <p>Um lote que falha não é descartado: a thread de gravação tenta de novo o mesmo lote com espera
+ * crescente (até retry-max-backoff-ms), e o que falha na thread da requisição vai para uma fila de
+ * reenvio esvaziada por ela. Com o banco fora as escritas de estoque também falham, então essa fila
+ * só guarda o que já tinha sido confirmado. Registros só se perdem se o banco ainda estiver fora no
+ * desligamento.
+ */
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final String INSERT_SQL = "insert into stock_movements "
+            + "(product_id, delta, quantity_stock, reason, created_at) values (?, ?, ?, ?, ?)";
+    private static final int MAX_REASON_LENGTH = 255;
+    private static final long MIN_BACKOFF_MS = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${shulkerbox.ledger.queue-capacity:65536}")
+    private int queueCapacity;
+    @Value("${shulkerbox.ledger.batch-size:1000}")
+    private int batchSize;
+    @Value("${shulkerbox.ledger.retry-max-backoff-ms:30000}")
+    private long maxBackoffMs;
+    @Value("${shulkerbox.pagination.max-limit:1000}")
+    private int maxLimit;
+
+    private BlockingQueue<StockMovement> queue;
+    private TransactionTemplate batchTransaction;
+    // Movimentações cuja gravação falhou na thread da requisição, reenviadas pela thread de gravação
+    private final Queue<StockMovement> retryQueue = new ConcurrentLinkedQueue<>();
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter written;
+    private Counter overflow;
+    private Counter retried;
+    private Counter failed;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Transação própria: o lote inteiro entra ou nada entra, então repetir um lote não duplica linhas
+        // (e, na thread da requisição, não se junta à transação já encerrada que publicou o evento)
+        batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        written = Counter.builder("shulkerbox.ledger.written")
+                .description("Movimentações gravadas no histórico").register(meterRegistry);
+        overflow = Counter.builder("shulkerbox.ledger.overflow")
+                .description("Movimentações gravadas na thread da requisição porque a fila estava cheia")
+                .register(meterRegistry);
+        retried = Counter.builder("shulkerbox.ledger.retried")
+                .description("Movimentações de lotes que falharam e voltaram para nova tentativa").register(meterRegistry);
+        failed = Counter.builder("shulkerbox.ledger.failed")
+                .description("Movimentações perdidas porque o banco seguia fora no desligamento").register(meterRegistry);
+        Gauge.builder("shulkerbox.ledger.queue", queue, BlockingQueue::size)
+                .description("Movimentações aguardando gravação").register(meterRegistry);
+        Gauge.builder("shulkerbox.ledger.retry_queue", retryQueue, Queue::size)
+                .description("Movimentações aguardando nova tentativa de gravação").register(meterRegistry);
+
+        running = true;
+        writer = Thread.ofPlatform().name("stock-ledger-writer").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * Para a thread de gravação e grava o que ainda estiver na fila antes de o DataSource fechar.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false; // A thread sai no próximo poll (até 1 s), sem interromper um lote no meio
+        LockSupport.unpark(writer); // Acorda a espera entre tentativas; o lote pendente vai para a fila de reenvio
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        List<StockMovement> remaining = new ArrayList<>(retryQueue);
+        retryQueue.clear();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            List<StockMovement> batch = remaining.subList(from, Math.min(from + batchSize, remaining.size()));
+            if (!write(batch)) {
+                failed.increment(batch.size());
+                log.error("{} movimentações de estoque não foram gravadas no histórico antes do desligamento", batch.size());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        record(event.productId(), event.delta(), event.quantityStock(), event.reason());
+    }
+
+    /**
+     * Cadastro, edição e exclusão também mexem no saldo (inicial, PUT completo e o que sai com o produto).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        int quantity = event.type() == ProductChangedEvent.ChangeType.DELETED ? 0 : event.product().getQuantityStock();
+        String reason = switch (event.type()) {
+            case CREATED -> "cadastro do produto";
+            case UPDATED -> "edição do produto";
+            case DELETED -> "exclusão do produto";
+        };
+        record(event.productId(), event.stockDelta(), quantity, reason);
+    }
+
+    /**
+     * Página do histórico no período [from, to), opcionalmente de um único produto, em ordem de
+     * (created_at, "ID") a partir do cursor (ver Cursor). Um cursor anterior a from é ignorado.
+     */
+    public CursorPage<StockMovement> history(Long productId, Instant from, Instant to, Cursor after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit, maxLimit);
+        Cursor start = after != null && !after.createdAt().isBefore(from) ? after : new Cursor(from, 0L);
+        List<StockMovement> rows = productId != null ?
+                stockMovementRepository.findByProduct(productId, start.createdAt(), start.id(), to, Limit.of(pageSize + 1)) :
+                stockMovementRepository.findInPeriod(start.createdAt(), start.id(), to, Limit.of(pageSize + 1));
+        return CursorPage.ofCursor(rows, pageSize, movement -> new Cursor(movement.getCreatedAt(), movement.getId()).toString());
+    }
+
+    /**
+     * Posição no histórico: instante e "ID" da última movimentação recebida, no formato
+     * "2024-01-01T10:00:00.123456Z_42" (valor do cabeçalho X-Next-Cursor).
+     */
+    public record Cursor(Instant createdAt, long id) {
+
+        /**
+         * Lê o cursor enviado pelo cliente; lança IllegalArgumentException se o formato for inválido.
+         */
+        public static Cursor parse(String value) {
+            int separator = value.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + value);
+            }
+            try {
+                return new Cursor(Instant.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + value, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return createdAt + "_" + id;
+        }
+    }
+
+    private void record(Long productId, int delta, int quantityStock, String reason) {
+        if (delta == 0) {
+            return; // PATCH com o mesmo saldo ou PUT sem mudança de estoque
+        }
+        StockMovement movement = StockMovement.builder()
+                .productId(productId)
+                .delta(delta)
+                .quantityStock(quantityStock)
+                .reason(reason != null && reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason)
+                .createdAt(Instant.now())
+                .build();
+        if (!queue.offer(movement)) {
+            overflow.increment();
+            if (!write(List.of(movement))) {
+                retryQueue.add(movement);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<StockMovement> batch = new ArrayList<>(batchSize);
+        long backoffMs = MIN_BACKOFF_MS;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    for (StockMovement retry; batch.size() < batchSize && (retry = retryQueue.poll()) != null; ) {
+                        batch.add(retry);
+                    }
+                    StockMovement first = batch.isEmpty() ? queue.poll(1, TimeUnit.SECONDS) : null;
+                    if (first != null) {
+                        batch.add(first);
+                    }
+                    queue.drainTo(batch, batchSize - batch.size());
+                    if (batch.isEmpty()) {
+                        continue;
+                    }
+                }
+                if (write(batch)) {
+                    batch.clear();
+                    backoffMs = MIN_BACKOFF_MS;
+                } else {
+                    // Mantém o lote e tenta de novo; enquanto isso a fila segue recebendo (e, cheia, grava na requisição)
+                    retried.increment(batch.size());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                    backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                retryQueue.addAll(batch); // Fica para o stop
+                return;
+            }
+        }
+        retryQueue.addAll(batch);
+    }
+
+    /**
+     * Grava o lote; retorna false se falhou (e então nada dele foi gravado).
+     */
+    private boolean write(List<StockMovement> batch) {
+        try {
+            batchTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, movement) -> {
+                        ps.setLong(1, movement.getProductId());
+                        ps.setInt(2, movement.getDelta());
+                        ps.setInt(3, movement.getQuantityStock());
+                        ps.setString(4, movement.getReason());
+                        ps.setObject(5, movement.getCreatedAt().atOffset(ZoneOffset.UTC)); // timestamp with time zone
+                    }));
+            written.increment(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar {} movimentações de estoque no histórico: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+}
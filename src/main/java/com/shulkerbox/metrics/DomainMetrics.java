@@ -0,0 +1,75 @@
+package com.shulkerbox.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contadores de negócio expostos em /actuator/prometheus, ao lado das métricas técnicas
+ * (HTTP, Hibernate, Hikari). As taxas por segundo saem do rate() do Prometheus sobre os contadores.
+ */
+@Component
+public class DomainMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Counter absoluteStockUpdates;
+    private Counter deltaStockUpdates;
+    private Counter negativeStockRejections;
+    private Counter hotStockOversold;
+    private Counter duplicateCnpjOnCreate;
+    private Counter duplicateCnpjOnUpdate;
+
+    @PostConstruct
+    void registerMeters() {
+        absoluteStockUpdates = stockUpdates("absolute");
+        deltaStockUpdates = stockUpdates("delta");
+        negativeStockRejections = Counter.builder("shulkerbox.stock.rejections")
+                .description("Movimentações de estoque recusadas porque o saldo ficaria negativo")
+                .tag("reason", "negative_stock")
+                .register(registry);
+        hotStockOversold = Counter.builder("shulkerbox.stock.hot.oversold")
+                .description("Unidades confirmadas no modo quente que não cabiam no saldo do banco (ajustado para 0)")
+                .register(registry);
+        duplicateCnpjOnCreate = duplicateCnpj("create");
+        duplicateCnpjOnUpdate = duplicateCnpj("update");
+    }
+
+    private Counter stockUpdates(String type) {
+        return Counter.builder("shulkerbox.stock.updates")
+                .description("Alterações de estoque aplicadas (valor absoluto ou movimentação relativa)")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    private Counter duplicateCnpj(String operation) {
+        return Counter.builder("shulkerbox.supplier.conflicts")
+                .description("Gravações de fornecedor recusadas por CNPJ já cadastrado")
+                .tag("reason", "duplicate_cnpj")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    public void stockSet() {
+        absoluteStockUpdates.increment();
+    }
+
+    public void stockMoved() {
+        deltaStockUpdates.increment();
+    }
+
+    public void negativeStockRejected() {
+        negativeStockRejections.increment();
+    }
+
+    public void hotStockOversold(long units) {
+        hotStockOversold.increment(units);
+    }
+
+    public void duplicateCnpj(boolean update) {
+        (update ? duplicateCnpjOnUpdate : duplicateCnpjOnCreate).increment();
+    }
+}
@@ -0,0 +1,62 @@
+package com.shulkerbox.metrics;
+
+/**
+ * Contagem do trabalho do Hibernate feito por uma requisição HTTP: instruções JDBC, entidades
+ * carregadas e flushes. Vive numa ThreadLocal entre {@link #begin()} e {@link #end()}, que o
+ * RequestStatisticsInterceptor chama em volta de cada handler; fora disso os incrementos são ignorados.
+ */
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entityLoads;
+    private int flushes;
+
+    private RequestStatistics() {
+    }
+
+    static void begin() {
+        CURRENT.set(new RequestStatistics());
+    }
+
+    /** Encerra a contagem da thread atual; null se nenhuma foi iniciada nela. */
+    static RequestStatistics end() {
+        RequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    static void statementExecuted() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entityLoads++;
+        }
+    }
+
+    static void flushed() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.flushes++;
+        }
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    int entityLoads() {
+        return entityLoads;
+    }
+
+    int flushes() {
+        return flushes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.shulkerbox.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Publica, por endpoint, quantas instruções JDBC, cargas de entidade e flushes cada requisição
+ * provocou (hibernate.request.statements, .entity.loads e .flushes). É o que mostra um N+1 ou um
+ * flush inesperado; os totais globais do Hibernate ficam nas métricas hibernate.* do hibernate-micrometer.
+ */
+@Component
+public class RequestStatisticsInterceptor implements AsyncHandlerInterceptor {
+
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void registerLoadListener() {
+        // O SessionEventListener não tem callback de carga de entidade; ela vem do evento POST_LOAD.
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RequestStatistics.entityLoaded());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestStatistics.begin();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Respostas assíncronas (exportação em streaming) continuam em outra thread e não são contadas.
+        RequestStatistics.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestStatistics statistics = RequestStatistics.end();
+        if (statistics == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        record("hibernate.request.statements", "Instruções JDBC executadas por requisição", request, uri, statistics.statements());
+        record("hibernate.request.entity.loads", "Entidades carregadas por requisição", request, uri, statistics.entityLoads());
+        record("hibernate.request.flushes", "Flushes da sessão por requisição", request, uri, statistics.flushes());
+    }
+
+    private void record(String name, String description, HttpServletRequest request, String uri, int value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(value);
+    }
+}
@@ -0,0 +1,25 @@
+package com.shulkerbox.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Ouvinte de sessão do Hibernate registrado por hibernate.session.events.auto (uma instância por sessão).
+ * Repassa instruções JDBC e flushes para a contagem da requisição corrente.
+ */
+public class RequestStatisticsSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        RequestStatistics.statementExecuted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        RequestStatistics.statementExecuted();
+    }
+
+    @Override
+    public void flushStart() {
+        RequestStatistics.flushed();
+    }
+}
@@ -0,0 +1,73 @@
+package com.shulkerbox.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tempo até a primeira requisição atendida, contado do início do processo (uptime da JVM), que é o
+ * que um reinício ou uma nova réplica realmente custa: inclui a JVM, o contexto e os beans criados
+ * sob demanda pela própria requisição. Vai para o log e para o gauge shulkerbox.startup.first-request;
+ * o tempo até o contexto pronto já sai em application.ready.time e o detalhe por fase em /actuator/startup.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StartupTimings extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimings.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    @PostConstruct
+    void registerMeters() {
+        TimeGauge.builder("shulkerbox.startup.first-request", firstRequestMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Tempo do início da JVM até a primeira requisição respondida (-1 enquanto não houver)")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Aplicação pronta: contexto em {} ms, {} ms desde o início da JVM",
+                event.getTimeTaken().toMillis(), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (firstRequestSeen.get() || !firstRequestSeen.compareAndSet(false, true)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            firstRequestMillis.set(uptime);
+            log.info("Primeira requisição ({} {}) respondida {} ms após o início da JVM",
+                    request.getMethod(), request.getRequestURI(), uptime);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.shulkerbox.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entidade que representa uma categoria no sistema.
@@ -9,6 +11,7 @@ import lombok.Data;
  */
 @Data // Anotação do Lombok para gerar getters, setters, toString, equals e hashCode automaticamente.
 @Entity // Indica que esta classe é uma entidade JPA.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // Permite serializar proxies LAZY vindos de Product.
 @Table(name = "categories") // Define o nome da tabela no banco de dados.
 public class Category {
 
@@ -29,4 +32,17 @@ public class Category {
     @Column(nullable = false, unique = true) // Define que a coluna no banco de dados não pode ser nula.
     private String name;
 
+    /**
+     * Ponto de reposição dos produtos da categoria que não definem o seu; null = sem alerta.
+     */
+    private Integer defaultReorderThreshold;
+
+    /**
+     * Versão para controle de concorrência otimista; usada como ETag da categoria.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
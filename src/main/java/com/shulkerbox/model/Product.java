@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entidade que representa um produto no sistema.
@@ -15,15 +16,22 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products") // Define o nome da tabela no banco de dados.
+@Table(name = "products", indexes = { // Define o nome da tabela e os índices das consultas filtradas.
+        @Index(name = "idx_products_category_price", columnList = "category_id, price"),
+        @Index(name = "idx_products_supplier_price", columnList = "supplier_id, price"),
+        @Index(name = "idx_products_quantity_stock", columnList = "quantity_stock")
+})
 public class Product {
 
     /**
      * Identificador único do produto.
-     * Este campo é a chave primária da tabela e é gerado automaticamente pelo banco de dados.
+     * Este campo é a chave primária da tabela e é gerado a partir da sequence "products_seq".
+     * A sequence avança de 50 em 50 (otimizador pooled): o Hibernate reserva os "IDs" em memória
+     * e consegue agrupar os INSERTs em lotes JDBC, o que não acontece com IDENTITY.
      */
     @Id // Indica que este campo é a chave primária.
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Define que o valor será auto-incremento.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -44,7 +52,7 @@ public class Product {
     @Column(nullable = false) // Define que a coluna no banco de dados não pode ser nula.
     private Double price;
 
-    @ManyToOne // Define o relacionamento muitos-para-um.
+    @ManyToOne(fetch = FetchType.LAZY) // Muitos-para-um; carregado só quando pedido (ver ProductRepository).
     @JoinColumn(name = "category_id", nullable = false) // Define a coluna de relacionamento no banco de dados.
     private Category category;
 
@@ -57,10 +65,25 @@ public class Product {
      * A coluna "fornecedor_id" na tabela "produtos" será a chave estrangeira para a tabela "fornecedores".
      */
 
-    @ManyToOne // Define o relacionamento muitos-para-um.
+    @ManyToOne(fetch = FetchType.LAZY) // Muitos-para-um; carregado só quando pedido (ver ProductRepository).
     @JoinColumn(name = "supplier_id", nullable = false) // Define a coluna de relacionamento no banco de dados.
     private Supplier supplier;
 
+    /**
+     * Ponto de reposição: com o estoque abaixo dele o produto entra na lista de estoque baixo.
+     * Null usa o padrão da categoria (Category.defaultReorderThreshold).
+     */
+    private Integer reorderThreshold;
+
+    /**
+     * Versão para controle de concorrência otimista; incrementada a cada gravação.
+     * Também é a base do ETag do produto (If-None-Match / If-Match).
+     */
+    @Version
+    @ColumnDefault("0") // Linhas já existentes (ou inseridas fora do JPA) começam na versão 0
+    @Column(nullable = false)
+    private Long version;
+
    }
 
 
@@ -0,0 +1,49 @@
+package com.shulkerbox.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Movimentação de estoque registrada no histórico (somente inserção, nunca alterada).
+ * Mapeada para a tabela "stock_movements", gravada em lote pelo StockLedger.
+ *
+ * <p>Não há chave estrangeira para products: o histórico sobrevive à exclusão do produto e a tabela
+ * pode ser particionada por created_at (PARTITION BY RANGE no PostgreSQL) sem depender de outra tabela.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stock_movements", indexes = { // Consultas por produto e período, e por período em todo o catálogo, em ordem (created_at, id)
+        @Index(name = "idx_stock_movements_product_created", columnList = "product_id, created_at, id"),
+        @Index(name = "idx_stock_movements_created", columnList = "created_at, id")
+})
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Inserido só via JDBC, o banco gera o "ID"
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    /** Variação aplicada: positiva para entrada, negativa para saída. */
+    @Column(nullable = false)
+    private Integer delta;
+
+    /** Saldo do produto logo após a movimentação. */
+    @Column(nullable = false)
+    private Integer quantityStock;
+
+    @Column(length = 255)
+    private String reason;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -1,10 +1,12 @@
 package com.shulkerbox.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor; // Adicionar se você vai usar @Builder ou construtor completo
 import lombok.Builder; // Adicionar se você vai usar @Builder
 import lombok.Data;
 import lombok.NoArgsConstructor; // Adicionar se você vai usar @Builder ou construtor padrão
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entidade que representa um fornecedor no sistema.
@@ -15,6 +17,7 @@ import lombok.NoArgsConstructor; // Adicionar se você vai usar @Builder ou cons
 @Builder // Adicionado para facilitar a criação de instâncias (útil em testes ou DTOs)
 @NoArgsConstructor // Necessário com @Builder para JPA
 @AllArgsConstructor // Necessário com @Builder para JPA
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // Permite serializar proxies LAZY vindos de Product.
 @Table(name = "suppliers") // Define o nome da tabela no banco de dados.
 public class Supplier {
 
@@ -54,4 +57,13 @@ public class Supplier {
     @Column // Por padrão, é nullable
     private String email; // NOVO CAMPO: Adicionado o email
 
+    /**
+     * Versão para controle de concorrência otimista.
+     * Base do ETag do fornecedor e conferida no If-Match da atualização.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.shulkerbox.repository;
+
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas dinâmicas de produtos (Criteria API), implementadas em ProductQueryRepositoryImpl.
+ */
+public interface ProductQueryRepository {
+
+    /**
+     * Busca os produtos que atendem à Specification, já projetados em ProductView,
+     * em um único SELECT com a ordenação e a janela (offset/limit) pedidas.
+     */
+    List<ProductView> findViews(Specification<Product> specification, Sort sort, int offset, int limit);
+}
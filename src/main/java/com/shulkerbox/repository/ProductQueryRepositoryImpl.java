@@ -0,0 +1,56 @@
+package com.shulkerbox.repository;
+
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.model.Category;
+import com.shulkerbox.model.Product;
+import com.shulkerbox.model.Supplier;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Implementação das consultas dinâmicas de produtos (fragmento de ProductRepository).
+ */
+public class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductView> findViews(Specification<Product> specification, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category");
+        Join<Product, Supplier> supplier = product.join("supplier");
+
+        query.select(cb.construct(ProductView.class,
+                product.get("id"), product.get("name"), product.get("description"),
+                product.get("price"), product.get("quantityStock"),
+                category.get("id"), category.get("name"),
+                supplier.get("id"), supplier.get("name"),
+                product.get("version")));
+
+        Predicate predicate = specification.toPredicate(product, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, product, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+}
@@ -1,9 +1,22 @@
 package com.shulkerbox.repository;
 
+import com.shulkerbox.dto.ProductView;
 import com.shulkerbox.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Repositório para a entidade Produto.
  * Esta interface estende JpaRepository, fornecendo métodos CRUD básicos
@@ -11,5 +24,89 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository // Indica que esta interface é um repositório gerenciado pelo Spring.
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductQueryRepository {
+
+    /**
+     * Carrega o produto já com categoria e fornecedor (um único SELECT com JOIN).
+     * As associações são LAZY; este plano de busca é usado pelos caminhos de escrita que leem a entidade.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier"})
+    Optional<Product> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier"})
+    List<Product> findAll();
+
+    /**
+     * Paginação por cursor: busca os produtos com "ID" maior que o cursor, em ordem de "ID",
+     * já projetados em ProductView. Usa o índice da chave primária e sempre executa um único SQL.
+     */
+    @Query("select new com.shulkerbox.dto.ProductView(p.id, p.name, p.description, p.price, p.quantityStock, " +
+            "c.id, c.name, s.id, s.name, p.version) " +
+            "from Product p join p.category c join p.supplier s " +
+            "where p.id > :after order by p.id")
+    List<ProductView> findViewsAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * Detalhe de um produto projetado em ProductView.
+     */
+    @Query("select new com.shulkerbox.dto.ProductView(p.id, p.name, p.description, p.price, p.quantityStock, " +
+            "c.id, c.name, s.id, s.name, p.version) " +
+            "from Product p join p.category c join p.supplier s " +
+            "where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    /**
+     * Percorre todo o catálogo projetado em ProductView, lendo do cursor JDBC em lotes de 500 linhas.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @Query("select new com.shulkerbox.dto.ProductView(p.id, p.name, p.description, p.price, p.quantityStock, " +
+            "c.id, c.name, s.id, s.name, p.version) " +
+            "from Product p join p.category c join p.supplier s " +
+            "order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ProductView> streamAllViews();
+
+    /**
+     * Soma delta ao estoque em um único UPDATE condicional, sem carregar a entidade.
+     * O WHERE impede que o estoque fique negativo; retorna 0 se o produto não existe ou se faltaria estoque.
+     * Como não passa pela entidade, incrementa a versão explicitamente (o ETag precisa mudar).
+     */
+    @Modifying
+    @Query("update Product p set p.quantityStock = p.quantityStock + :delta, p.version = p.version + 1 " +
+            "where p.id = :id and p.quantityStock + :delta >= 0")
+    int applyStockDelta(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Troca o saldo só se ele ainda for o esperado (lido antes, na mesma conferência); retorna 0 se mudou
+     * no meio do caminho ou se o produto não existe mais.
+     */
+    @Modifying
+    @Query("update Product p set p.quantityStock = :quantity, p.version = p.version + 1 " +
+            "where p.id = :id and p.quantityStock = :expected")
+    int replaceStockIfUnchanged(@Param("id") Long id, @Param("expected") int expected, @Param("quantity") int quantity);
+
+    /**
+     * Lê só a quantidade em estoque de um produto.
+     */
+    @Query("select p.quantityStock from Product p where p.id = :id")
+    Optional<Integer> findQuantityStockById(@Param("id") Long id);
+
+    /**
+     * Saldo, versão e grupos atuais de um produto, relidos logo após uma movimentação.
+     */
+    @Query("select new com.shulkerbox.repository.StockLevelRow(p.id, p.quantityStock, p.version, p.category.id, p.supplier.id, p.price) " +
+            "from Product p where p.id = :id")
+    Optional<StockLevelRow> findStockLevelById(@Param("id") Long id);
+
+    /**
+     * Lê só a versão de um produto: basta para responder a um GET condicional sem montar o corpo.
+     */
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
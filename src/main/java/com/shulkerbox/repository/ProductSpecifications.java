@@ -0,0 +1,42 @@
+package com.shulkerbox.repository;
+
+import com.shulkerbox.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Critérios reutilizáveis para consultas de produtos.
+ * Os filtros por categoria e fornecedor comparam direto a chave estrangeira, sem JOIN,
+ * e combinam com os índices declarados em Product.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> hasCategory(Long categoryId) {
+        return (root, query, cb) -> categoryId == null ? null : cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> hasSupplier(Long supplierId) {
+        return (root, query, cb) -> supplierId == null ? null : cb.equal(root.get("supplier").get("id"), supplierId);
+    }
+
+    public static Specification<Product> priceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(root.get("price"), minPrice, maxPrice);
+            }
+            if (minPrice != null) {
+                return cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+            }
+            if (maxPrice != null) {
+                return cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Product> stockBelow(Integer quantity) {
+        return (root, query, cb) -> quantity == null ? null : cb.lessThan(root.get("quantityStock"), quantity);
+    }
+}
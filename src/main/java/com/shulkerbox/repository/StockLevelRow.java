@@ -0,0 +1,19 @@
+package com.shulkerbox.repository;
+
+import com.shulkerbox.dto.StockLevelResponse;
+import com.shulkerbox.event.StockValuation;
+
+/**
+ * Saldo, versão e grupos de um produto relidos logo após uma movimentação, numa consulta só:
+ * a resposta ao cliente sai daqui e o StockChangedEvent também.
+ */
+public record StockLevelRow(Long id, Integer quantityStock, Long version, Long categoryId, Long supplierId, Double price) {
+
+    public StockLevelResponse response() {
+        return new StockLevelResponse(id, quantityStock, version);
+    }
+
+    public StockValuation valuation() {
+        return new StockValuation(categoryId, supplierId, price);
+    }
+}
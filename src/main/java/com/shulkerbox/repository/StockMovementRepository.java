@@ -0,0 +1,38 @@
+package com.shulkerbox.repository;
+
+import com.shulkerbox.model.StockMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Consultas ao histórico de movimentações de estoque. As gravações não passam por aqui: o
+ * StockLedger insere em lote direto via JDBC.
+ */
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Movimentações de um produto de (afterAt, afterId) exclusive até to, em ordem de (created_at, "ID")
+     * (usa o índice product_id, created_at, id). A primeira página começa em (from, 0).
+     */
+    @Query("select m from StockMovement m where m.productId = :productId "
+            + "and m.createdAt >= :afterAt and m.createdAt < :to "
+            + "and (m.createdAt > :afterAt or m.id > :afterId) order by m.createdAt, m.id")
+    List<StockMovement> findByProduct(@Param("productId") Long productId, @Param("afterAt") Instant afterAt,
+                                      @Param("afterId") long afterId, @Param("to") Instant to, Limit limit);
+
+    /**
+     * Movimentações de todos os produtos de (afterAt, afterId) exclusive até to, em ordem de (created_at, "ID")
+     * (usa o índice created_at, id).
+     */
+    @Query("select m from StockMovement m where m.createdAt >= :afterAt and m.createdAt < :to "
+            + "and (m.createdAt > :afterAt or m.id > :afterId) order by m.createdAt, m.id")
+    List<StockMovement> findInPeriod(@Param("afterAt") Instant afterAt, @Param("afterId") long afterId,
+                                     @Param("to") Instant to, Limit limit);
+}
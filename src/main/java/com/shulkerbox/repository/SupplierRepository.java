@@ -1,9 +1,12 @@
 package com.shulkerbox.repository;
 
 import com.shulkerbox.model.Supplier;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositório para a entidade Produto.
  * Esta interface estende JpaRepository, fornecendo métodos CRUD básicos
@@ -12,4 +15,9 @@ import org.springframework.stereotype.Repository;
 
 @Repository // Indica que esta interface é um repositório gerenciado pelo Spring.
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
+
+    /**
+     * Busca os fornecedores seguintes ao cursor ("ID" maior que after), ordenados por "ID".
+     */
+    List<Supplier> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
 }
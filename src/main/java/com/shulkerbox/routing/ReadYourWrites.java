@@ -0,0 +1,64 @@
+package com.shulkerbox.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shulkerbox.admission.AdmissionControl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Leitura das próprias escritas com réplicas assíncronas: depois de uma escrita bem-sucedida, as leituras
+ * do mesmo cliente (endereço de origem, como no controle de admissão) vão para o primário durante
+ * read-your-writes-ms, tempo que deve cobrir o atraso normal da replicação. As próprias requisições de
+ * escrita também leem do primário (validações antes de gravar). Os demais clientes continuam nas réplicas.
+ */
+@Component
+@ConditionalOnProperty(name = "shulkerbox.datasource.routing.enabled", havingValue = "true")
+public class ReadYourWrites extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${shulkerbox.datasource.routing.read-your-writes-ms:5000}") long windowMs) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Se as leituras somente leitura da thread atual devem ir para o primário.
+     */
+    static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientId = AdmissionControl.clientId(request);
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        PINNED_TO_PRIMARY.set(write || recentWriters.getIfPresent(clientId) != null);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PINNED_TO_PRIMARY.remove();
+            if (write && response.getStatus() < 400) {
+                recentWriters.put(clientId, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.shulkerbox.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Destino das conexões somente leitura (transações readOnly): escolhe uma réplica em rodízio entre as
+ * saudáveis e cai no primário quando não há réplica disponível ou quando o cliente acabou de gravar
+ * (ver {@link ReadYourWrites}). As conexões de escrita nem passam por aqui: vão direto para o primário.
+ * <p>
+ * Uma réplica sai do rodízio quando falha ao entregar uma conexão (a leitura daquela chamada vai para o
+ * primário) ou na verificação periódica, e volta assim que a verificação seguinte der certo.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final int validationTimeoutSeconds;
+
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+                                    int validationTimeoutSeconds, MeterRegistry meterRegistry) {
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name(), replica.dataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        replicaReads = reads(meterRegistry, "replica", "replica");
+        pinnedReads = reads(meterRegistry, "primary", "read_your_writes");
+        fallbackReads = reads(meterRegistry, "primary", "no_healthy_replica");
+        Gauge.builder("shulkerbox.datasource.replicas.healthy", this, ReplicaRoutingDataSource::healthyReplicas)
+                .description("Réplicas de leitura no rodízio")
+                .register(meterRegistry);
+    }
+
+    private static Counter reads(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("shulkerbox.datasource.routing.reads")
+                .description("Conexões somente leitura entregues, por destino e motivo")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            pinnedReads.increment();
+            return PRIMARY;
+        }
+        Replica replica = nextHealthyReplica();
+        if (replica == null) {
+            fallbackReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica.name();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        Replica replica = replicaNamed(key);
+        if (replica == null) {
+            return getResolvedDefaultDataSource().getConnection();
+        }
+        try {
+            return replica.dataSource().getConnection();
+        } catch (SQLException e) {
+            markDown(replica, e);
+            fallbackReads.increment();
+            return getResolvedDefaultDataSource().getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credenciais explícitas são do primário; não há como repassá-las às réplicas
+        return getResolvedDefaultDataSource().getConnection(username, password);
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (candidate.healthy) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Replica replicaNamed(Object key) {
+        for (Replica replica : replicas) {
+            if (replica.name().equals(key)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Testa cada réplica (inclusive as que estão fora do rodízio) e atualiza o estado de saúde.
+     */
+    @Scheduled(fixedDelayString = "${shulkerbox.datasource.routing.health-check-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    if (!replica.healthy) {
+                        log.info("Réplica {} voltou ao rodízio de leituras", replica.name());
+                    }
+                    replica.healthy = true;
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            log.warn("Réplica {} fora do rodízio de leituras: {}", replica.name(),
+                    cause != null ? cause.getMessage() : "conexão inválida");
+        }
+        replica.healthy = false;
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return dataSource.getPoolName();
+        }
+
+        private HikariDataSource dataSource() {
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.shulkerbox.search;
+
+import com.shulkerbox.dto.AutocompleteSuggestion;
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.SupplierChangedEvent;
+import com.shulkerbox.model.Supplier;
+import com.shulkerbox.repository.ProductRepository;
+import com.shulkerbox.repository.SupplierRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Autocompletar dos seletores de produto (nome) e fornecedor (nome e CNPJ), servido por dois
+ * {@link PrefixIndex} em memória: carregados do banco na subida e atualizados pelos eventos de
+ * gravação dos serviços, sem nenhuma consulta ao banco por tecla digitada.
+ *
+ * <p>A carga e os eventos são serializados pelo monitor desta instância; as consultas não passam
+ * por ele e seguem atendidas pelos índices durante a carga.
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    // CNPJ digitado com ou sem pontuação ("12.345.678/0001-99" ou "1234567800"): compara só os dígitos
+    private static final Pattern CNPJ_LIKE = Pattern.compile("[\\d./\\-\\s]*\\d[\\d./\\-\\s]*");
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+
+    public enum Type {
+        PRODUCT,
+        SUPPLIER
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final PrefixIndex products = new PrefixIndex();
+    private final PrefixIndex suppliers = new PrefixIndex();
+
+    @PostConstruct
+    void registerMeters() {
+        for (Type type : Type.values()) {
+            Gauge.builder("shulkerbox.autocomplete.memory", this, index -> index.indexOf(type).stats().estimatedBytes())
+                    .description("Memória estimada do índice de autocompletar")
+                    .baseUnit("bytes")
+                    .tag("index", type.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Carrega os dois índices a partir do banco quando a aplicação termina de subir. Roda com o
+     * monitor tomado: um evento que chegue durante a carga espera por ela e é aplicado por cima do
+     * que ela leu, em vez de ser sobrescrito por uma linha lida antes da gravação.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<ProductView> views = productRepository.streamAllViews()) {
+                views.forEach(product -> indexProduct(product.id(), product.name()));
+            }
+            supplierRepository.findAll().forEach(this::indexSupplier);
+        });
+        log.info("Índices de autocompletar carregados: {} produtos, {} fornecedores em {} ms",
+                products.stats().items(), suppliers.stats().items(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            products.remove(event.productId());
+        } else {
+            indexProduct(event.productId(), event.product().getName());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSupplierChanged(SupplierChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            suppliers.remove(event.supplierId());
+        } else {
+            indexSupplier(event.supplier());
+        }
+    }
+
+    private void indexProduct(Long id, String name) {
+        products.put(id, name, null, List.of(name));
+    }
+
+    private void indexSupplier(Supplier supplier) {
+        String cnpjDigits = supplier.getCnpj() != null ? NON_DIGITS.matcher(supplier.getCnpj()).replaceAll("") : null;
+        suppliers.put(supplier.getId(), supplier.getName(), supplier.getCnpj(), Arrays.asList(supplier.getName(), cnpjDigits));
+    }
+
+    /**
+     * Até limit sugestões para o prefixo, em ordem alfabética.
+     */
+    public List<AutocompleteSuggestion> complete(Type type, String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        if (type == Type.SUPPLIER && CNPJ_LIKE.matcher(prefix).matches()) {
+            prefix = NON_DIGITS.matcher(prefix).replaceAll("");
+        }
+        return indexOf(type).complete(prefix, limit);
+    }
+
+    /**
+     * Tamanho e memória estimada de cada índice.
+     */
+    public Map<String, PrefixIndex.Stats> stats() {
+        return Map.of("product", products.stats(), "supplier", suppliers.stats());
+    }
+
+    private PrefixIndex indexOf(Type type) {
+        return type == Type.PRODUCT ? products : suppliers;
+    }
+}
@@ -0,0 +1,150 @@
+package com.shulkerbox.search;
+
+import com.shulkerbox.dto.AutocompleteSuggestion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice de prefixos para autocompletar: um mapa ordenado cujas chaves são os textos normalizados a
+ * partir de cada início de palavra ("caneca termica inox", "termica inox", "inox"), seguidos do "ID".
+ * Um prefixo vira um intervalo do mapa e as primeiras chaves do intervalo já são as sugestões em ordem
+ * alfabética, então a consulta percorre só algumas entradas, seja qual for o tamanho do índice.
+ * <p>
+ * Leituras não bloqueiam; gravações (raras perto das consultas) são serializadas por item.
+ * O tamanho em memória é uma estimativa mantida a cada gravação (JVM 64 bits com compressed oops).
+ */
+public final class PrefixIndex {
+
+    // Separa o texto do "ID" na chave; ordena antes de qualquer caractere, então "abc" vem antes de "abcd"
+    private static final char ID_SEPARATOR = '\u0000';
+
+    // Estimativas de objetos: nó do ConcurrentSkipListMap (+ níveis de índice, ~1/3 por nó), Long,
+    // nó do ConcurrentHashMap e o registro do item com suas chaves
+    private static final int SKIP_LIST_ENTRY_BYTES = 24 + 8 + 16;
+    private static final int ITEM_BYTES = 32 + 16 + 24 + 16;
+
+    private final ConcurrentSkipListMap<String, Long> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, Item> items = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    private record Item(String label, String detail, List<String> keys) {
+    }
+
+    /**
+     * Tamanho atual do índice.
+     *
+     * @param items          produtos ou fornecedores indexados
+     * @param entries        chaves no mapa ordenado (uma por início de palavra)
+     * @param estimatedBytes memória estimada de chaves, nós e itens
+     */
+    public record Stats(int items, int entries, long estimatedBytes) {
+    }
+
+    /**
+     * Indexa (ou reindexa) um item. Cada texto de searchableTexts é quebrado em palavras e entra a
+     * partir de cada uma delas; textos null são ignorados.
+     */
+    public void put(long id, String label, String detail, Collection<String> searchableTexts) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String text : searchableTexts) {
+            List<String> words = words(text);
+            for (int i = 0; i < words.size(); i++) {
+                keys.add(String.join(" ", words.subList(i, words.size())) + ID_SEPARATOR + id);
+            }
+        }
+        Item item = new Item(label, detail, List.copyOf(keys));
+        synchronized (this) {
+            removeItem(id);
+            items.put(id, item);
+            item.keys().forEach(key -> entries.put(key, id));
+            estimatedBytes.addAndGet(bytesOf(item));
+        }
+    }
+
+    public synchronized void remove(long id) {
+        removeItem(id);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        items.clear();
+        estimatedBytes.set(0);
+    }
+
+    private void removeItem(long id) {
+        Item previous = items.remove(id);
+        if (previous != null) {
+            previous.keys().forEach(entries::remove);
+            estimatedBytes.addAndGet(-bytesOf(previous));
+        }
+    }
+
+    /**
+     * Até limit itens com alguma palavra começando pelo prefixo (sem acentos nem caixa), em ordem
+     * alfabética do trecho casado. Vários termos no prefixo casam palavras consecutivas.
+     */
+    public List<AutocompleteSuggestion> complete(String prefix, int limit) {
+        String normalized = String.join(" ", words(prefix));
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : entries.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+            if (ids.add(id) && ids.size() == limit) {
+                break;
+            }
+        }
+        List<AutocompleteSuggestion> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Item item = items.get(id);
+            if (item != null) { // Removido entre a leitura da chave e a do item
+                suggestions.add(new AutocompleteSuggestion(id, item.label(), item.detail()));
+            }
+        }
+        return suggestions;
+    }
+
+    public Stats stats() {
+        return new Stats(items.size(), entries.size(), estimatedBytes.get());
+    }
+
+    /**
+     * Palavras normalizadas do texto. Ao contrário da busca, as stopwords ficam: no autocompletar,
+     * "de" pode ser só o começo de "desinfetante".
+     */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : TextNormalizer.normalize(text).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static long bytesOf(Item item) {
+        long bytes = ITEM_BYTES + stringBytes(item.label()) + stringBytes(item.detail()) + 16L + 4L * item.keys().size();
+        for (String key : item.keys()) {
+            bytes += SKIP_LIST_ENTRY_BYTES + stringBytes(key);
+        }
+        return bytes;
+    }
+
+    // String compacta: cabeçalho + campos (24) e array (16 + 1 byte por caractere Latin-1, 2 nos demais)
+    private static long stringBytes(String text) {
+        if (text == null) {
+            return 0;
+        }
+        boolean latin1 = text.chars().allMatch(c -> c <= 0xFF);
+        long array = 16L + (latin1 ? text.length() : 2L * text.length());
+        return 24 + ((array + 7) / 8) * 8;
+    }
+}
@@ -0,0 +1,201 @@
+package com.shulkerbox.search;
+
+import com.shulkerbox.dto.ProductSearchHit;
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória sobre o nome e a descrição dos produtos.
+ * <p>
+ * Cada termo aponta para os produtos que o contêm, com um peso (ocorrências no nome valem
+ * NAME_WEIGHT vezes as da descrição). A consulta exige todos os termos (o último também casa
+ * por prefixo) e ordena por peso × IDF. O índice é reconstruído na inicialização e mantido
+ * incrementalmente pelos eventos de produto; as buscas nunca vão ao banco.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+    // Casamento só por prefixo vale metade de um termo completo
+    private static final double PREFIX_FACTOR = 0.5;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // termo -> ("ID" do produto -> peso do termo no produto)
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+
+    private record IndexedProduct(String name, Map<String, Integer> terms) {
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco quando a aplicação termina de subir. Roda com o monitor
+     * tomado: um evento que chegue durante a carga espera por ela e é aplicado por cima do que ela
+     * leu, em vez de ser sobrescrito por uma linha lida antes da gravação.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<ProductView> products = productRepository.streamAllViews()) {
+                products.forEach(product -> index(product.id(), product.name(), product.description()));
+            }
+        });
+        log.info("Índice de busca reconstruído: {} produtos, {} termos em {} ms",
+                documents.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            remove(event.productId());
+        } else {
+            index(event.productId(), event.product().getName(), event.product().getDescription());
+        }
+    }
+
+    /**
+     * Indexa (ou reindexa) um produto.
+     */
+    public synchronized void index(Long id, String name, String description) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : TextNormalizer.tokenize(name)) {
+            terms.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : TextNormalizer.tokenize(description)) {
+            terms.merge(token, 1, Integer::sum);
+        }
+        IndexedProduct previous = documents.put(id, new IndexedProduct(name, terms));
+        if (previous != null) {
+            unlink(id, previous);
+        }
+        terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, weight));
+    }
+
+    /**
+     * Remove um produto do índice.
+     */
+    public synchronized void remove(Long id) {
+        IndexedProduct previous = documents.remove(id);
+        if (previous != null) {
+            unlink(id, previous);
+        }
+    }
+
+    private void unlink(Long id, IndexedProduct product) {
+        for (String term : product.terms().keySet()) {
+            // Mantém o termo se a nova versão do documento também o tiver
+            IndexedProduct current = documents.get(id);
+            if (current != null && current.terms().containsKey(term)) {
+                continue;
+            }
+            postings.computeIfPresent(term, (key, docs) -> {
+                docs.remove(id);
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+
+    /**
+     * Busca os produtos que contêm todos os termos da consulta, do mais para o menos relevante.
+     */
+    public List<ProductSearchHit> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int totalDocuments = Math.max(documents.size(), 1);
+
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            Map<Long, Double> tokenScores = scoreToken(tokens.get(i), last, totalDocuments);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // Interseção: só continuam os produtos que têm todos os termos
+                Map<Long, Double> merged = new HashMap<>();
+                Map<Long, Double> previous = scores;
+                tokenScores.forEach((id, score) -> {
+                    Double current = previous.get(id);
+                    if (current != null) {
+                        merged.put(id, current + score);
+                    }
+                });
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        // Top-k com heap de tamanho limit
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<ProductSearchHit> hits = new ArrayList<>(top.size());
+        for (Map.Entry<Long, Double> entry : top) {
+            IndexedProduct product = documents.get(entry.getKey());
+            if (product != null) {
+                hits.add(new ProductSearchHit(entry.getKey(), product.name(), entry.getValue()));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(ProductSearchHit::score).reversed()
+                .thenComparing(ProductSearchHit::id));
+        return hits;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private Map<Long, Double> scoreToken(String token, boolean allowPrefix, int totalDocuments) {
+        Map<Long, Double> scores = new HashMap<>();
+        NavigableMap<String, Map<Long, Integer>> matches = allowPrefix
+                ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                : exact(token);
+        matches.forEach((term, docs) -> {
+            double idf = Math.log(1.0 + (double) totalDocuments / docs.size());
+            double factor = term.equals(token) ? 1.0 : PREFIX_FACTOR;
+            docs.forEach((id, weight) -> scores.merge(id, weight * idf * factor, Math::max));
+        });
+        return scores;
+    }
+
+    private NavigableMap<String, Map<Long, Integer>> exact(String token) {
+        return postings.subMap(token, true, token, true);
+    }
+}
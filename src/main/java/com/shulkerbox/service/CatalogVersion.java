@@ -0,0 +1,50 @@
+package com.shulkerbox.service;
+
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.StockChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão da coleção de produtos, usada como ETag das listagens: um contador em memória incrementado
+ * a cada alteração de produto, estoque, categoria ou fornecedor. Responder a um GET condicional
+ * custa uma leitura atômica, sem consulta ao banco nem serialização.
+ *
+ * <p>O prefixo com o instante da subida invalida os ETags antigos quando a aplicação reinicia.
+ * O contador só vale para esta instância: gravações feitas por fora da API (SQL direto, outra
+ * réplica) não são vistas.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * ETag fraco: as listagens só o usam em If-None-Match (comparação fraca), e o Tomcat não comprime
+     * respostas com ETag forte, já que o corpo em gzip não é byte a byte o mesmo representado por ele.
+     */
+    public String currentTag() {
+        return "W/\"" + epoch + "-" + changes.get() + "\"";
+    }
+
+    /**
+     * Registra uma alteração. Deve ser chamado depois do commit: incrementar antes permitiria que
+     * uma leitura ainda com os dados antigos fosse guardada pelo cliente sob o ETag novo.
+     */
+    public void bump() {
+        changes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        bump();
+    }
+}
@@ -1,10 +1,19 @@
 package com.shulkerbox.service;
 
+import com.shulkerbox.config.CacheConfig;
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.event.CategoryChangedEvent;
 import com.shulkerbox.model.Category;
 import com.shulkerbox.repository.CategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,24 +21,47 @@ import java.util.Optional;
 /**
  * Serviço para a entidade Categoria.
  * Esta classe contém a lógica de negócio para manipulação de categorias.
+ * As leituras passam pelo cache de dados de referência; toda escrita invalida o cache.
  */
 @Service // Indica que esta classe é um serviço gerenciado pelo Spring.
 public class CategoryService {
 
     @Autowired // Injeta automaticamente uma instância de CategoryRepository.
     private CategoryRepository categoryRepository;
+    @Autowired // Nome da categoria aparece nas listagens de produtos
+    private CatalogVersion catalogVersion;
+    @Autowired // O ponto de reposição padrão afeta os alertas de estoque baixo dos produtos da categoria
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${shulkerbox.pagination.max-limit:1000}") // Teto rígido de itens por página.
+    private int maxLimit;
 
     /**
      * Retorna uma lista de todas as categorias.
      */
+    @Transactional(readOnly = true)
     public List<Category> findAll() {
         return categoryRepository.findAll();
     }
 
+    /**
+     * Retorna uma página de categorias a partir do cursor (último "ID" já recebido).
+     */
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_PAGES, key = "#after + ':' + #limit")
+    @Transactional(readOnly = true)
+    public CursorPage<Category> findPage(Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit, maxLimit);
+        List<Category> rows = categoryRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : 0L, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Category::getId);
+    }
+
     /**
      * Busca uma categoria pelo "ID".
      * Retorna null se a categoria não for encontrada.
      */
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Category findById(Long id) {
         Optional<Category> category = categoryRepository.findById(id);
         return category.orElse(null);
@@ -38,27 +70,41 @@ public class CategoryService {
     /**
      * Salva uma nova categoria ou atualiza uma existente.
      */
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIES, CacheConfig.CATEGORY_PAGES}, allEntries = true)
     public Category save(Category category) {
-        return categoryRepository.save(category);
+        boolean existing = category.getId() != null;
+        Category saved = categoryRepository.save(category);
+        if (existing) {
+            catalogVersion.bump();
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     // Atualizar categoria existente
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIES, CacheConfig.CATEGORY_PAGES}, allEntries = true)
     public Category update(Long id, Category updatedCategory) {
         // Busca a categoria existente pelo ID
-        return categoryRepository.findById(id)
+        Category saved = categoryRepository.findById(id)
                 .map(existingCategory -> {
-                    // Atualiza apenas o nome (ou outros campos se houver)
+                    // Atualiza o nome e o ponto de reposição padrão
                     existingCategory.setName(updatedCategory.getName());
+                    existingCategory.setDefaultReorderThreshold(updatedCategory.getDefaultReorderThreshold());
                     // Salva a categoria atualizada
                     return categoryRepository.save(existingCategory);
                 })
                 .orElseThrow(() -> new EntityNotFoundException("Categoria não encontrada com ID: " + id)); // Lança exceção se não encontrar
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, saved));
+        return saved;
     }
 
     /**
      * Exclui uma categoria pelo ID.
      */
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIES, CacheConfig.CATEGORY_PAGES}, allEntries = true)
     public void deleteById(Long id) {
         categoryRepository.deleteById(id);
+        catalogVersion.bump();
     }
 }
@@ -0,0 +1,67 @@
+package com.shulkerbox.service;
+
+import com.shulkerbox.dto.ProductView;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Montagem e comparação de ETags fortes a partir da versão (@Version) das entidades.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * ETag de um produto: para SKUs no modo quente inclui o saldo em memória, que muda sem
+     * alterar a versão no banco até o próximo flush.
+     */
+    public static String of(Long version, Integer hotQuantity) {
+        return hotQuantity == null ? of(version) : "\"" + version + "." + hotQuantity + "\"";
+    }
+
+    /**
+     * ETag fraco de uma página de produtos, calculado das linhas que formam o corpo, na mesma leitura
+     * (da réplica ou do primário). Muda com a versão e o saldo de qualquer produto da página, com os
+     * nomes de categoria e fornecedor (que mudam sem alterar a versão do produto) e com o cursor seguinte.
+     */
+    public static String ofViews(List<ProductView> views, String nextCursor) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder row = new StringBuilder();
+        for (ProductView view : views) {
+            row.setLength(0);
+            row.append(view.id()).append('\u0000').append(view.version()).append('\u0000').append(view.quantityStock())
+                    .append('\u0000').append(view.categoryName()).append('\u0000').append(view.supplierName()).append('\n');
+            digest.update(row.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(String.valueOf(nextCursor).getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 12) + "\"";
+    }
+
+    /**
+     * Confere um cabeçalho If-Match (lista separada por vírgulas ou "*") contra o ETag atual.
+     * ETags fracos (W/...) nunca casam: If-Match exige comparação forte.
+     */
+    public static boolean matches(String ifMatch, String currentTag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(currentTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
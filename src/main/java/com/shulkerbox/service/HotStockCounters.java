@@ -0,0 +1,600 @@
+package com.shulkerbox.service;
+
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.metrics.DomainMetrics;
+import com.shulkerbox.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Modo "SKU quente": contadores de estoque em memória para produtos com muitas movimentações por segundo.
+ * <p>
+ * Em vez de cada movimentação disputar a trava da mesma linha no PostgreSQL, os deltas de um SKU quente
+ * são acumulados em memória e gravados de forma agregada a cada flush-interval-ms (write-behind), com um
+ * único StockChangedEvent por SKU e flush. O saldo disponível é dividido em faixas (uma por grupo de
+ * threads, como no LongAdder), cada uma com uma reserva tirada de um saldo comum: a movimentação comum
+ * é um CAS na reserva da própria faixa, e o saldo nunca fica negativo.
+ * <p>
+ * Os SKUs entram no modo por configuração (shulkerbox.hot-stock.skus) ou por detecção automática,
+ * quando passam de auto-detect-threshold movimentações por segundo; os detectados saem após ficarem ociosos.
+ * <p>
+ * Toda escrita que passa pelo banco com o SKU fora do modo quente (movimentação, valor absoluto, edição,
+ * exclusão, lote) é registrada como escrita em andamento do produto: a promoção espera essas escritas
+ * terminarem e segura as novas até ler o saldo, então o saldo em memória nunca parte de um valor que uma
+ * escrita ainda vai mudar. Escritas que sobrescrevem o estoque passam por withoutHotMode, que também
+ * grava os deltas pendentes e tira o SKU do modo quente antes da escrita.
+ */
+@Component
+public class HotStockCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockCounters.class);
+
+    // Motivos gravados no histórico para os deltas agregados de um flush e para a correção pelo saldo do banco
+    static final String FLUSH_REASON = "movimentações do modo quente (agregadas no flush)";
+    static final String RESYNC_REASON = "ajuste do modo quente (saldo divergente no banco)";
+    private static final int RESYNC_ATTEMPTS = 3;
+
+    // Faixas por SKU (potência de 2, ao menos uma por processador); cada reserva ocupa sua própria
+    // linha de cache (8 longs = 64 bytes) no array
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+    private static final int CELL_PADDING = 8;
+    // Marca as reservas de um SKU fechado ou em ajuste: qualquer movimentação cai no caminho lento
+    private static final long FROZEN = Long.MIN_VALUE / 2;
+    // Quanto a promoção espera as escritas em andamento terminarem antes de desistir até a próxima janela
+    private static final long PROMOTION_WAIT_MS = 500;
+    // Precisão de lastMovementAt: evita que toda movimentação grave no mesmo campo
+    private static final long MOVEMENT_CLOCK_MS = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DomainMetrics domainMetrics;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${shulkerbox.hot-stock.enabled:false}")
+    private boolean enabled;
+    @Value("${shulkerbox.hot-stock.skus:}")
+    private Set<Long> pinnedSkus;
+    @Value("${shulkerbox.hot-stock.auto-detect-threshold:200}")
+    private long autoDetectThreshold;
+    @Value("${shulkerbox.hot-stock.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
+    private final Map<Long, HotSku> hotSkus = new ConcurrentHashMap<>();
+    // Movimentações por produto na janela de detecção corrente (só SKUs fora do modo quente)
+    private final Map<Long, LongAdder> recentMovements = new ConcurrentHashMap<>();
+    // Escritas pelo banco em andamento por produto (só enquanto houver alguma ou uma promoção)
+    private final Map<Long, WriteGate> writeGates = new ConcurrentHashMap<>();
+
+    /**
+     * Estado de um SKU quente.
+     * <p>
+     * Saldo = pool + soma das reservas das faixas. Só o caminho rápido (retirada que cabe na reserva da
+     * faixa) roda sem o monitor do objeto; reabastecer uma faixa, juntar as reservas, entradas, fechar o
+     * SKU e somar o saldo para o flush tomam o monitor. flushLock serializa flush, saída do modo e ajuste
+     * (os que vão ao banco) sem segurar o monitor durante o I/O, exceto no ajuste.
+     */
+    private static final class HotSku {
+        final AtomicLongArray cells = new AtomicLongArray(STRIPES * CELL_PADDING);
+        // Saldo fora das reservas; só muda com o monitor
+        volatile long pool;
+        // Saldo que o banco tem segundo o último flush; só muda com flushLock
+        long persisted;
+        final Object flushLock = new Object();
+        final boolean pinned;
+        volatile long lastMovementAt = System.currentTimeMillis();
+        volatile boolean closed;
+
+        HotSku(long persisted, boolean pinned) {
+            this.pool = persisted;
+            this.persisted = persisted;
+            this.pinned = pinned;
+        }
+
+        /** Saldo exato com o monitor (as reservas só diminuem fora dele); aproximado sem ele. */
+        long total() {
+            long total = pool;
+            for (int i = 0; i < STRIPES; i++) {
+                long cell = cells.get(i * CELL_PADDING);
+                if (cell != FROZEN) {
+                    total += cell;
+                }
+            }
+            return total;
+        }
+
+        /** Devolve as reservas ao pool; com frozen, marca as faixas para que nenhuma retirada passe sem o monitor. */
+        void collect(boolean frozen) {
+            for (int i = 0; i < STRIPES; i++) {
+                long cell = cells.getAndSet(i * CELL_PADDING, frozen ? FROZEN : 0);
+                if (cell != FROZEN) {
+                    pool += cell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escritas pelo banco em andamento de um produto e a promoção dele, se houver uma: a promoção espera
+     * writers chegar a zero e, enquanto dura, novas escritas esperam por ela.
+     */
+    private static final class WriteGate {
+        final Long id;
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition changed = lock.newCondition();
+        int writers;
+        boolean promoting;
+        // Já saiu do mapa: quem pegou a referência antes tem que buscar outra
+        boolean retired;
+
+        WriteGate(Long id) {
+            this.id = id;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isHot(Long id) {
+        return enabled && hotSkus.containsKey(id);
+    }
+
+    /**
+     * Movimentação relativa: aplica em memória se o SKU está no modo quente e devolve inMemory(novo saldo);
+     * senão executa inDatabase registrada como escrita em andamento do produto.
+     */
+    public <T> T move(Long id, int delta, IntFunction<T> inMemory, Supplier<T> inDatabase) {
+        if (!enabled) {
+            return inDatabase.get();
+        }
+        while (true) {
+            Integer quantity = tryApply(id, delta);
+            if (quantity != null) {
+                return inMemory.apply(quantity);
+            }
+            HotSku closing = hotSkus.get(id);
+            if (closing != null) {
+                // Saindo do modo (ou em ajuste): espera os deltas pendentes chegarem ao banco
+                synchronized (closing.flushLock) {
+                    continue;
+                }
+            }
+            List<WriteGate> gates = enterWrites(List.of(id));
+            try {
+                if (hotSkus.containsKey(id)) {
+                    continue; // Promovido enquanto esperava a entrada
+                }
+                return inDatabase.get();
+            } finally {
+                leaveWritesAfterCompletion(gates);
+            }
+        }
+    }
+
+    /**
+     * Aplica o delta em memória a um SKU quente e retorna o novo saldo (aproximado sob concorrência), ou null
+     * se o SKU não está no modo quente (ou está saindo dele). Lança 409 se o saldo ficaria negativo ou
+     * passaria do máximo.
+     */
+    public Integer tryApply(Long id, int delta) {
+        if (!enabled) {
+            return null;
+        }
+        HotSku sku = hotSkus.get(id);
+        if (sku == null) {
+            recordMovement(id);
+            return null;
+        }
+        int cell = stripe();
+        if (delta < 0) {
+            long current;
+            while ((current = sku.cells.get(cell)) + delta >= 0) {
+                if (sku.cells.compareAndSet(cell, current, current + delta)) {
+                    touch(sku);
+                    return (int) Math.min(Integer.MAX_VALUE, Math.max(0, sku.total()));
+                }
+            }
+        }
+        synchronized (sku) {
+            if (sku.closed) {
+                return null; // Em evict: a movimentação vai direto ao banco
+            }
+            long total = sku.total();
+            if (delta >= 0) {
+                if (total + delta > Integer.MAX_VALUE) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "A movimentação de " + delta + " deixaria o estoque do produto " + id + " acima do máximo");
+                }
+                sku.pool += delta;
+            } else {
+                if (sku.pool < -delta) {
+                    sku.collect(false); // Junta as reservas das outras faixas antes de recusar
+                }
+                if (sku.pool < -delta) {
+                    domainMetrics.negativeStockRejected();
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Estoque insuficiente para a movimentação de " + delta + " no produto " + id);
+                }
+                sku.pool += delta;
+                long share = sku.pool / STRIPES;
+                if (share > 0) {
+                    sku.pool -= share;
+                    sku.cells.addAndGet(cell, share);
+                }
+            }
+            touch(sku);
+            return (int) sku.total();
+        }
+    }
+
+    /**
+     * Saldo atual de um SKU quente (persistido + pendente), ou null se o SKU não está no modo quente.
+     */
+    public Integer currentQuantity(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        HotSku sku = hotSkus.get(id);
+        return sku != null && !sku.closed ? (int) Math.min(Integer.MAX_VALUE, Math.max(0, sku.total())) : null;
+    }
+
+    /**
+     * Executa uma escrita que sobrescreve o estoque (valor absoluto, edição, exclusão, lote) com os SKUs
+     * fora do modo quente: grava os deltas pendentes antes e impede que refreshHotSet os promova de novo
+     * até a escrita terminar (ou a transação em volta dela, se houver uma).
+     */
+    public <T> T withoutHotMode(Collection<Long> ids, Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        List<WriteGate> gates = enterWrites(ids);
+        try {
+            ids.forEach(this::evict);
+            return write.get();
+        } finally {
+            leaveWritesAfterCompletion(gates);
+        }
+    }
+
+    /**
+     * Grava os deltas pendentes do SKU e o retira do modo quente, para que um flush posterior não
+     * reaplique deltas sobre um valor gravado depois. Escritas absolutas usam withoutHotMode.
+     */
+    public void evict(Long id) {
+        if (!enabled) {
+            return;
+        }
+        HotSku sku = hotSkus.get(id);
+        if (sku == null) {
+            return;
+        }
+        synchronized (sku.flushLock) {
+            synchronized (sku) {
+                sku.closed = true; // Daqui em diante nenhuma movimentação entra no saldo em memória
+                sku.collect(true);
+            }
+            if (!flush(id, sku)) {
+                synchronized (sku) {
+                    sku.closed = false; // Mantém o SKU e os deltas pendentes para a próxima tentativa
+                    sku.collect(false);
+                }
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Não foi possível gravar o estoque pendente do produto " + id);
+            }
+            hotSkus.remove(id, sku);
+        }
+    }
+
+    /**
+     * Write-behind: grava a soma dos deltas pendentes de cada SKU quente com um único UPDATE por SKU.
+     */
+    @Scheduled(fixedDelayString = "${shulkerbox.hot-stock.flush-interval-ms:100}")
+    public void flushAll() {
+        if (!enabled) {
+            return;
+        }
+        hotSkus.forEach((id, sku) -> {
+            if (!sku.closed) {
+                flush(id, sku);
+            }
+        });
+    }
+
+    /**
+     * Promove os SKUs configurados e os que passaram do limite de movimentações na última janela,
+     * e devolve ao modo normal os detectados automaticamente que ficaram ociosos.
+     */
+    @Scheduled(fixedDelayString = "${shulkerbox.hot-stock.detect-window-ms:1000}")
+    public void refreshHotSet() {
+        if (!enabled) {
+            return;
+        }
+        for (Long id : pinnedSkus) {
+            promote(id, true);
+        }
+        if (autoDetectThreshold > 0) {
+            recentMovements.forEach((id, count) -> {
+                if (count.sum() >= autoDetectThreshold) {
+                    promote(id, false);
+                }
+            });
+        }
+        recentMovements.clear();
+
+        long idleSince = System.currentTimeMillis() - idleTimeoutMs;
+        hotSkus.forEach((id, sku) -> {
+            if (!sku.pinned && sku.lastMovementAt < idleSince) {
+                try {
+                    evict(id);
+                } catch (ResponseStatusException e) {
+                    log.warn(e.getReason());
+                }
+            }
+        });
+    }
+
+    /**
+     * Esvazia todos os contadores no desligamento da aplicação, antes de o pool de conexões ser fechado.
+     */
+    @PreDestroy
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        for (Long id : hotSkus.keySet()) {
+            try {
+                evict(id);
+            } catch (ResponseStatusException e) {
+                log.error("{}; deltas pendentes descartados no desligamento", e.getReason());
+            }
+        }
+    }
+
+    private void recordMovement(Long id) {
+        if (autoDetectThreshold > 0) {
+            recentMovements.computeIfAbsent(id, key -> new LongAdder()).increment();
+        }
+    }
+
+    private static int stripe() {
+        return (int) (Thread.currentThread().threadId() & (STRIPES - 1)) * CELL_PADDING;
+    }
+
+    private static void touch(HotSku sku) {
+        long now = System.currentTimeMillis();
+        if (now - sku.lastMovementAt >= MOVEMENT_CLOCK_MS) {
+            sku.lastMovementAt = now;
+        }
+    }
+
+    /**
+     * Registra escritas pelo banco nos produtos, esperando uma promoção em andamento de algum deles terminar.
+     */
+    private List<WriteGate> enterWrites(Collection<Long> ids) {
+        List<WriteGate> gates = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            while (true) {
+                WriteGate gate = writeGates.computeIfAbsent(id, WriteGate::new);
+                gate.lock.lock();
+                try {
+                    if (gate.retired) {
+                        continue;
+                    }
+                    while (gate.promoting) {
+                        gate.changed.awaitUninterruptibly();
+                    }
+                    gate.writers++;
+                    gates.add(gate);
+                    break;
+                } finally {
+                    gate.lock.unlock();
+                }
+            }
+        }
+        return gates;
+    }
+
+    private void leaveWritesAfterCompletion(List<WriteGate> gates) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    gates.forEach(gate -> leave(gate, false));
+                }
+            });
+        } else {
+            gates.forEach(gate -> leave(gate, false));
+        }
+    }
+
+    private void leave(WriteGate gate, boolean promotion) {
+        gate.lock.lock();
+        try {
+            if (promotion) {
+                gate.promoting = false;
+            } else {
+                gate.writers--;
+            }
+            gate.changed.signalAll();
+            if (gate.writers == 0 && !gate.promoting) {
+                gate.retired = true;
+                writeGates.remove(gate.id, gate);
+            }
+        } finally {
+            gate.lock.unlock();
+        }
+    }
+
+    private void promote(Long id, boolean pinned) {
+        if (hotSkus.containsKey(id)) {
+            return;
+        }
+        WriteGate gate;
+        while (true) {
+            gate = writeGates.computeIfAbsent(id, WriteGate::new);
+            gate.lock.lock();
+            try {
+                if (gate.retired) {
+                    continue;
+                }
+                if (gate.promoting) {
+                    return;
+                }
+                // Segura as escritas novas e espera as em andamento: nenhuma grava depois da leitura do saldo
+                gate.promoting = true;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROMOTION_WAIT_MS);
+                long remaining;
+                while (gate.writers > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        gate.changed.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                if (gate.writers > 0) {
+                    log.debug("Produto {} com escritas em andamento; promoção fica para a próxima janela", id);
+                    gate.promoting = false;
+                    gate.changed.signalAll();
+                    return;
+                }
+                break;
+            } finally {
+                gate.lock.unlock();
+            }
+        }
+        try {
+            productRepository.findQuantityStockById(id).ifPresent(quantity -> {
+                hotSkus.putIfAbsent(id, new HotSku(quantity, pinned));
+                log.info("Produto {} entrou no modo de estoque quente (saldo {})", id, quantity);
+            });
+        } finally {
+            leave(gate, true);
+        }
+    }
+
+    /**
+     * Grava os deltas pendentes de um SKU e publica um StockChangedEvent com a soma deles.
+     * Retorna false se o banco falhou; os deltas continuam pendentes.
+     */
+    private boolean flush(Long id, HotSku sku) {
+        synchronized (sku.flushLock) {
+            long total;
+            synchronized (sku) {
+                total = sku.total();
+            }
+            long delta = total - sku.persisted;
+            if (delta == 0) {
+                return true;
+            }
+            try {
+                Boolean applied = new TransactionTemplate(transactionManager).execute(status -> {
+                    if (productRepository.applyStockDelta(id, Math.toIntExact(delta)) == 0) {
+                        return false;
+                    }
+                    // Publicado dentro da transação: os ouvintes rodam depois do commit, uma vez por flush
+                    productRepository.findStockLevelById(id).ifPresent(level -> eventPublisher.publishEvent(
+                            new StockChangedEvent(id, (int) delta, level.quantityStock(), level.version(), FLUSH_REASON, level.valuation())));
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(applied)) {
+                    return resync(id, sku);
+                }
+                sku.persisted = total;
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar o delta {} do produto {}: {}", delta, id, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * O UPDATE condicional não achou a linha ou o saldo no banco não comporta os deltas (alterado por fora
+     * da API, já que as escritas da API não correm em paralelo com o modo quente). Os deltas já foram
+     * confirmados aos clientes, então não são descartados: com as movimentações bloqueadas, o saldo do banco
+     * recebe todos eles (limitado a zero, com a diferença contada como venda acima do estoque) e o saldo em
+     * memória passa a ser o gravado. Chamado com flushLock.
+     */
+    private boolean resync(Long id, HotSku sku) {
+        synchronized (sku) {
+            sku.collect(true);
+            long pending = sku.pool - sku.persisted;
+            try {
+                for (int attempt = 0; attempt < RESYNC_ATTEMPTS; attempt++) {
+                    Optional<Integer> stored = new TransactionTemplate(transactionManager)
+                            .execute(status -> productRepository.findQuantityStockById(id));
+                    if (stored == null || stored.isEmpty()) {
+                        log.warn("Produto {} não existe mais; descartando {} unidades pendentes do modo quente", id, pending);
+                        sku.closed = true;
+                        hotSkus.remove(id, sku);
+                        return true;
+                    }
+                    long wanted = stored.get() + pending;
+                    int target = (int) Math.max(0, Math.min(wanted, Integer.MAX_VALUE));
+                    long previous = sku.persisted;
+                    Boolean replaced = new TransactionTemplate(transactionManager).execute(status -> {
+                        if (productRepository.replaceStockIfUnchanged(id, stored.get(), target) == 0) {
+                            return false;
+                        }
+                        if (previous != target) {
+                            productRepository.findStockLevelById(id).ifPresent(level -> eventPublisher.publishEvent(new StockChangedEvent(
+                                    id, (int) (target - previous), target, level.version(), RESYNC_REASON, level.valuation())));
+                        }
+                        return true;
+                    });
+                    if (Boolean.TRUE.equals(replaced)) {
+                        if (wanted < 0) {
+                            log.error("Produto {}: {} unidades confirmadas no modo quente além do saldo do banco; estoque ajustado para 0",
+                                    id, -wanted);
+                            domainMetrics.hotStockOversold(-wanted);
+                        }
+                        sku.pool = target;
+                        sku.persisted = target;
+                        return true;
+                    }
+                }
+                log.warn("Saldo do produto {} mudou durante o ajuste do modo quente; nova tentativa no próximo flush", id);
+                return false;
+            } catch (RuntimeException e) {
+                log.warn("Falha ao ajustar o saldo do produto {}: {}", id, e.getMessage());
+                return false;
+            } finally {
+                if (!sku.closed) {
+                    sku.collect(false);
+                }
+            }
+        }
+    }
+}
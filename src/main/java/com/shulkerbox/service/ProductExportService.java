@@ -0,0 +1,141 @@
+package com.shulkerbox.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do catálogo de produtos em NDJSON ou CSV.
+ * As linhas são lidas do cursor JDBC e escritas direto na resposta, sem montar a lista em memória.
+ * A consulta devolve projeções (ProductView), que não ficam no contexto de persistência,
+ * então o uso de heap não depende do tamanho do catálogo.
+ */
+@Service
+public class ProductExportService {
+
+    // Mesmo tamanho do fetch size da consulta: envia a resposta a cada lote lido do banco.
+    private static final int FLUSH_INTERVAL = 500;
+
+    private static final String CSV_HEADER =
+            "id,name,description,price,quantityStock,categoryId,categoryName,supplierId,supplierName";
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Escreve um produto por linha em JSON (application/x-ndjson).
+     */
+    public void exportNdjson(OutputStream out) {
+        JsonGenerator generator;
+        try {
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null); // As linhas são separadas só pelo '\n'
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        streamRows(generator::flush, row -> {
+            generator.writeObject(row);
+            generator.writeRaw('\n');
+        });
+    }
+
+    /**
+     * Escreve o catálogo em CSV (RFC 4180), com linha de cabeçalho.
+     */
+    public void exportCsv(OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        streamRows(writer::flush, row -> {
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(csv(row.name()));
+            writer.write(',');
+            writer.write(csv(row.description()));
+            writer.write(',');
+            writer.write(String.valueOf(row.price()));
+            writer.write(',');
+            writer.write(String.valueOf(row.quantityStock()));
+            writer.write(',');
+            writer.write(String.valueOf(row.categoryId()));
+            writer.write(',');
+            writer.write(csv(row.categoryName()));
+            writer.write(',');
+            writer.write(String.valueOf(row.supplierId()));
+            writer.write(',');
+            writer.write(csv(row.supplierName()));
+            writer.write("\r\n");
+        });
+    }
+
+    /**
+     * Percorre o catálogo em uma transação somente leitura, entregando cada linha ao writer.
+     * O primeiro lote é enviado assim que lido, para que o cliente receba os primeiros bytes imediatamente.
+     */
+    private void streamRows(IoAction flush, RowWriter rowWriter) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<ProductView> products = productRepository.streamAllViews()) {
+                Iterator<ProductView> iterator = products.iterator();
+                int count = 0;
+                while (iterator.hasNext()) {
+                    rowWriter.write(iterator.next());
+                    if (++count % FLUSH_INTERVAL == 0) {
+                        flush.run();
+                    }
+                }
+                flush.run();
+            } catch (IOException e) {
+                // Cliente desconectou ou falha de escrita: aborta a leitura e libera o cursor.
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Escapa um campo CSV: entre aspas quando contém vírgula, aspas ou quebra de linha.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ProductView row) throws IOException;
+    }
+}
@@ -0,0 +1,327 @@
+package com.shulkerbox.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shulkerbox.dto.BulkIngestResult;
+import com.shulkerbox.dto.ProductRequestDTO;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.model.Category;
+import com.shulkerbox.model.Product;
+import com.shulkerbox.model.Supplier;
+import com.shulkerbox.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Importação em lote de produtos a partir de NDJSON ou CSV.
+ * A entrada é lida em streaming e processada em lotes: categorias e fornecedores são resolvidos
+ * uma vez por "ID" distinto do lote (pelo cache de referência) e os INSERTs vão em lotes JDBC,
+ * uma transação por lote.
+ */
+@Service
+public class ProductIngestService {
+
+    // Quantos erros por linha são devolvidos na resposta (o total continua em "failed").
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private SupplierService supplierService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${shulkerbox.ingest.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Importa um produto por linha em JSON, com os mesmos campos de ProductRequestDTO.
+     */
+    public BulkIngestResult ingestNdjson(InputStream in) throws IOException {
+        Ingestion ingestion = new Ingestion();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long row = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                ingestion.add(row, objectMapper.readValue(line, ProductRequestDTO.class));
+            } catch (JsonProcessingException e) {
+                ingestion.reject(row, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+        return ingestion.finish();
+    }
+
+    /**
+     * Importa um CSV com cabeçalho. As colunas são localizadas pelo nome
+     * (name, description, price, quantityStock, categoryId, supplierId); colunas extras são ignoradas,
+     * então o arquivo gerado pela exportação pode ser reimportado.
+     */
+    public BulkIngestResult ingestCsv(InputStream in) throws IOException {
+        Ingestion ingestion = new Ingestion();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return ingestion.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        for (String required : List.of("name", "price", "quantityStock", "categoryId", "supplierId")) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Coluna obrigatória ausente no CSV: " + required);
+            }
+        }
+
+        List<String> record;
+        long row = 0;
+        while ((record = reader.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                ProductRequestDTO dto = new ProductRequestDTO();
+                dto.setName(field(record, columns, "name"));
+                dto.setDescription(field(record, columns, "description"));
+                dto.setPrice(Double.parseDouble(field(record, columns, "price")));
+                dto.setQuantityStock(Integer.parseInt(field(record, columns, "quantityStock")));
+                dto.setCategoryId(Long.valueOf(field(record, columns, "categoryId")));
+                dto.setSupplierId(Long.valueOf(field(record, columns, "supplierId")));
+                String reorderThreshold = field(record, columns, "reorderThreshold"); // Coluna opcional
+                dto.setReorderThreshold(reorderThreshold != null ? Integer.valueOf(reorderThreshold) : null);
+                ingestion.add(row, dto);
+            } catch (NumberFormatException | NullPointerException e) {
+                ingestion.reject(row, "Valor numérico inválido ou ausente");
+            }
+        }
+        return ingestion.finish();
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Estado de uma importação: acumula o lote corrente e os contadores.
+     */
+    private class Ingestion {
+        private final List<Long> rows = new ArrayList<>();
+        private final List<ProductRequestDTO> pending = new ArrayList<>();
+        private final List<BulkIngestResult.RowError> errors = new ArrayList<>();
+        private long received;
+        private long inserted;
+        private long failed;
+
+        void add(long row, ProductRequestDTO dto) {
+            received++;
+            rows.add(row);
+            pending.add(dto);
+            if (pending.size() >= batchSize) {
+                flushBatch();
+            }
+        }
+
+        void reject(long row, String error) {
+            received++;
+            fail(row, error);
+        }
+
+        private void fail(long row, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BulkIngestResult.RowError(row, error));
+            }
+        }
+
+        BulkIngestResult finish() {
+            if (!pending.isEmpty()) {
+                flushBatch();
+            }
+            errors.sort(Comparator.comparingLong(BulkIngestResult.RowError::row));
+            return new BulkIngestResult(received, inserted, failed, errors);
+        }
+
+        private void flushBatch() {
+            // Resolve cada referência distinta do lote uma única vez
+            Map<Long, Category> categories = resolve(pending, ProductRequestDTO::getCategoryId,
+                    categoryService::findById);
+            Map<Long, Supplier> suppliers = resolve(pending, ProductRequestDTO::getSupplierId,
+                    id -> supplierService.findByIdOptional(id).orElse(null));
+
+            List<Product> products = new ArrayList<>(pending.size());
+            List<Long> productRows = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                ProductRequestDTO dto = pending.get(i);
+                long row = rows.get(i);
+                String error = validate(dto, categories, suppliers);
+                if (error != null) {
+                    fail(row, error);
+                    continue;
+                }
+                products.add(Product.builder()
+                        .name(dto.getName())
+                        .description(dto.getDescription())
+                        .price(dto.getPrice())
+                        .quantityStock(dto.getQuantityStock())
+                        .reorderThreshold(dto.getReorderThreshold())
+                        .category(categories.get(dto.getCategoryId()))
+                        .supplier(suppliers.get(dto.getSupplierId()))
+                        .build());
+                productRows.add(row);
+            }
+            rows.clear();
+            pending.clear();
+
+            if (!products.isEmpty()) {
+                try {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                        productRepository.saveAll(products);
+                        entityManager.flush();
+                        entityManager.clear(); // Não acumula entidades entre lotes
+                    });
+                    inserted += products.size();
+                    for (Product product : products) {
+                        eventPublisher.publishEvent(new ProductChangedEvent(
+                                ProductChangedEvent.ChangeType.CREATED, product.getId(), product, product.getQuantityStock(), null));
+                    }
+                } catch (RuntimeException e) {
+                    // Falha no banco derruba o lote inteiro: todas as linhas dele são reportadas
+                    String error = "Falha ao gravar o lote: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    for (Long row : productRows) {
+                        fail(row, error);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String validate(ProductRequestDTO dto, Map<Long, Category> categories, Map<Long, Supplier> suppliers) {
+        if (dto.getName() == null || dto.getName().trim().isEmpty()) {
+            return "O nome do produto é obrigatório.";
+        }
+        if (dto.getQuantityStock() < 0) {
+            return "A quantidade em estoque não pode ser negativa.";
+        }
+        if (dto.getReorderThreshold() != null && dto.getReorderThreshold() < 0) {
+            return "O ponto de reposição não pode ser negativo.";
+        }
+        if (dto.getCategoryId() == null || !categories.containsKey(dto.getCategoryId())) {
+            return "Categoria não encontrada com ID: " + dto.getCategoryId();
+        }
+        if (dto.getSupplierId() == null || !suppliers.containsKey(dto.getSupplierId())) {
+            return "Fornecedor não encontrado com ID: " + dto.getSupplierId();
+        }
+        return null;
+    }
+
+    private static <T> Map<Long, T> resolve(List<ProductRequestDTO> batch, Function<ProductRequestDTO, Long> idOf,
+                                            Function<Long, T> finder) {
+        Map<Long, T> resolved = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (ProductRequestDTO dto : batch) {
+            Long id = idOf.apply(dto);
+            if (id == null || resolved.containsKey(id) || missing.contains(id)) {
+                continue;
+            }
+            T entity = finder.apply(id);
+            if (entity != null) {
+                resolved.put(id, entity);
+            } else {
+                missing.add(id);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Leitor mínimo de CSV (RFC 4180): campos entre aspas podem conter vírgulas, aspas duplicadas e quebras de linha.
+     */
+    private static final class CsvReader {
+        private final BufferedReader reader;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (following != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            record.add(field.toString());
+            return record;
+        }
+    }
+}
@@ -1,62 +1,198 @@
 package com.shulkerbox.service;
 
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.dto.ProductFilter;
 import com.shulkerbox.dto.ProductRequestDTO; // Importar o DTO
+import com.shulkerbox.dto.ProductView;
+import com.shulkerbox.dto.StockLevelResponse;
+import com.shulkerbox.event.ProductChangedEvent;
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.event.StockValuation;
+import com.shulkerbox.metrics.DomainMetrics;
 import com.shulkerbox.model.Category;
 import com.shulkerbox.model.Product;
 import com.shulkerbox.model.Supplier;
-import com.shulkerbox.repository.CategoryRepository; // Importar
 import com.shulkerbox.repository.ProductRepository;
-import com.shulkerbox.repository.SupplierRepository; // Importar (Assumindo que você tem um)
+import com.shulkerbox.repository.StockLevelRow;
+import com.shulkerbox.repository.ProductSpecifications;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.http.HttpStatus; // Para ResponseStatusException
 import org.springframework.web.server.ResponseStatusException; // Para ResponseStatusException
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductService {
 
+    // Campos aceitos em "sort" na consulta filtrada, com a propriedade correspondente da entidade
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id",
+            "name", "name",
+            "price", "price",
+            "quantityStock", "quantityStock");
+
     @Autowired
     private ProductRepository productRepository;
-    @Autowired // NOVO: Injetar CategoryRepository
-    private CategoryRepository categoryRepository;
-    @Autowired // NOVO: Injetar SupplierRepository (ou SupplierService se ele retornar um Optional<Supplier>)
-    private SupplierRepository supplierRepository;
+    @Autowired // Categorias e fornecedores vêm dos serviços, que mantêm os dados de referência em cache
+    private CategoryService categoryService;
+    @Autowired
+    private SupplierService supplierService;
+    @Autowired
+    private HotStockCounters hotStockCounters;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired // Avisa os índices em memória (busca etc.) sobre cada alteração de produto
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private DomainMetrics domainMetrics;
 
+    @Value("${shulkerbox.pagination.max-limit:1000}") // Teto rígido de itens por página
+    private int maxLimit;
 
+    @Transactional(readOnly = true)
     public List<Product> listAll() {
         return productRepository.findAll();
     }
 
+    /**
+     * Lista uma página de produtos a partir do cursor "after" (último "ID" da página anterior).
+     * Sem limite informado, aplica o teto configurado em vez de carregar a tabela inteira.
+     * A página inteira sai de um único SELECT, já projetada em ProductView.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductView> listPage(Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit, maxLimit);
+        List<ProductView> rows = productRepository.findViewsAfter(
+                after != null ? after : 0L, Limit.of(pageSize + 1));
+        if (hotStockCounters.isEnabled()) {
+            rows = rows.stream().map(this::mergeHotStock).toList();
+        }
+        return CursorPage.of(rows, pageSize, ProductView::id);
+    }
+
+    /**
+     * Consulta filtrada e ordenada no banco (categoria, fornecedor, faixa de preço, estoque abaixo de N).
+     * A ordenação só aceita os campos de SORTABLE_FIELDS e sempre desempata pelo "ID".
+     * Páginas cujo deslocamento passaria de Integer.MAX_VALUE linhas são recusadas (400).
+     */
+    @Transactional(readOnly = true)
+    public List<ProductView> query(ProductFilter filter) {
+        String property = SORTABLE_FIELDS.get(filter.getSort());
+        if (property == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Campo de ordenação inválido: " + filter.getSort() + " (use " + SORTABLE_FIELDS.keySet() + ")");
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(filter.getDirection())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Direção de ordenação inválida: " + filter.getDirection() + " (use asc ou desc)"));
+        Sort sort = property.equals("id") ? Sort.by(direction, "id")
+                : Sort.by(direction, property).and(Sort.by(direction, "id"));
+
+        Specification<Product> specification = Specification.allOf(
+                ProductSpecifications.hasCategory(filter.getCategoryId()),
+                ProductSpecifications.hasSupplier(filter.getSupplierId()),
+                ProductSpecifications.priceBetween(filter.getMinPrice(), filter.getMaxPrice()),
+                ProductSpecifications.stockBelow(filter.getStockBelow()));
+
+        int pageSize = CursorPage.clampLimit(filter.getSize(), maxLimit);
+        long offset = (long) Math.max(filter.getPage(), 0) * pageSize;
+        if (offset > Integer.MAX_VALUE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Página fora do intervalo: page * size não pode passar de " + Integer.MAX_VALUE);
+        }
+        List<ProductView> rows = productRepository.findViews(specification, sort, (int) offset, pageSize);
+        return hotStockCounters.isEnabled() ? rows.stream().map(this::mergeHotStock).toList() : rows;
+    }
+
+    /**
+     * Detalhe de um produto projetado em ProductView, ou null se não existir.
+     */
+    @Transactional(readOnly = true)
+    public ProductView findView(Long id) {
+        return productRepository.findViewById(id)
+                .map(this::mergeHotStock)
+                .orElse(null);
+    }
+
+    /**
+     * ETag atual de um produto, lido sem montar a projeção (só a versão, mais o saldo em memória
+     * se o SKU estiver quente). Lança EntityNotFoundException se o produto não existir.
+     */
+    public String currentTag(Long id) {
+        Long version = productRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com ID: " + id));
+        return EntityTags.of(version, hotStockCounters.currentQuantity(id));
+    }
+
+    /**
+     * ETag correspondente a uma projeção já lida (a mesma regra de currentTag).
+     */
+    public String tagOf(ProductView product) {
+        return EntityTags.of(product.version(), hotStockCounters.currentQuantity(product.id()));
+    }
+
+    @Transactional(readOnly = true)
     public Product searchById(Long id) {
         Optional<Product> product = productRepository.findById(id);
         return product.orElse(null);
     }
 
+    /**
+     * Para SKUs no modo quente, o estoque exibido inclui os deltas ainda não gravados no banco.
+     */
+    private ProductView mergeHotStock(ProductView product) {
+        Integer hotQuantity = hotStockCounters.currentQuantity(product.id());
+        return hotQuantity != null ? product.withQuantityStock(hotQuantity) : product;
+    }
+
     public Product save(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                ProductChangedEvent.ChangeType.CREATED, savedProduct.getId(), savedProduct, savedProduct.getQuantityStock(), null));
+        return savedProduct;
     }
 
     /**
      * Atualiza um produto existente usando um DTO.
+     * Com ifMatch (cabeçalho If-Match), só grava se o produto ainda estiver na versão lida pelo cliente (412 caso contrário).
      */
-    public Product update(Long id, ProductRequestDTO dto) { // AGORA ACEITA DTO
+    public Product update(Long id, ProductRequestDTO dto, String ifMatch) { // AGORA ACEITA DTO
+        String pendingMatch = checkHotPrecondition(id, ifMatch);
+        // O DTO traz o estoque absoluto: grava os deltas pendentes antes
+        return hotStockCounters.withoutHotMode(List.of(id), () -> applyUpdate(id, dto, pendingMatch));
+    }
+
+    private Product applyUpdate(Long id, ProductRequestDTO dto, String pendingMatch) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com ID: " + id));
+        requireMatch(pendingMatch, EntityTags.of(existingProduct.getVersion()));
+
+        int previousQuantity = existingProduct.getQuantityStock();
+        StockValuation previous = StockValuation.of(existingProduct);
 
         // Atualizar campos a partir do DTO
         existingProduct.setName(dto.getName());
         existingProduct.setDescription(dto.getDescription());
         existingProduct.setPrice(dto.getPrice());
         existingProduct.setQuantityStock(dto.getQuantityStock());
+        existingProduct.setReorderThreshold(validReorderThreshold(dto.getReorderThreshold()));
 
         // Lógica para atualizar Categoria (se o ID for diferente ou se for fornecido)
         if (dto.getCategoryId() != null &&
                 (existingProduct.getCategory() == null || !dto.getCategoryId().equals(existingProduct.getCategory().getId()))) {
-            Category newCategory = categoryRepository.findById(dto.getCategoryId())
+            Category newCategory = Optional.ofNullable(categoryService.findById(dto.getCategoryId()))
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "Categoria não encontrada com ID: " + dto.getCategoryId()));
             existingProduct.setCategory(newCategory);
@@ -65,7 +201,7 @@ public class ProductService {
         // Lógica para atualizar Fornecedor (se o ID for diferente ou se for fornecido)
         if (dto.getSupplierId() != null &&
                 (existingProduct.getSupplier() == null || !dto.getSupplierId().equals(existingProduct.getSupplier().getId()))) {
-            Supplier newSupplier = supplierRepository.findById(dto.getSupplierId()) // Usar supplierRepository
+            Supplier newSupplier = supplierService.findByIdOptional(dto.getSupplierId())
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "Fornecedor não encontrado com ID: " + dto.getSupplierId()));
             existingProduct.setSupplier(newSupplier);
@@ -73,21 +209,107 @@ public class ProductService {
 
         // existingProduct.setBrand(dto.getBrand()); // REMOVIDO: Não mais no DTO ou Model
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                ProductChangedEvent.ChangeType.UPDATED, id, savedProduct, savedProduct.getQuantityStock() - previousQuantity, previous));
+        return savedProduct;
     }
 
     public void deleteProduct(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com ID: " + id));
+        Product product = hotStockCounters.withoutHotMode(List.of(id), () -> {
+            Product existing = productRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com ID: " + id));
+            productRepository.delete(existing);
+            return existing;
+        });
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                ProductChangedEvent.ChangeType.DELETED, id, null, -product.getQuantityStock(), StockValuation.of(product)));
+    }
 
-        productRepository.delete(product);
+    /**
+     * Define o estoque absoluto. O motivo (opcional) vai para o histórico de movimentações.
+     */
+    public Product updateStock(Long id, Integer newQuantityStock, String reason, String ifMatch) {
+        String pendingMatch = checkHotPrecondition(id, ifMatch);
+        // O valor absoluto prevalece sobre os deltas em memória
+        return hotStockCounters.withoutHotMode(List.of(id), () -> applyStock(id, newQuantityStock, reason, pendingMatch));
     }
 
-    public Product updateStock(Long id, Integer newQuantityStock) {
+    private Product applyStock(Long id, Integer newQuantityStock, String reason, String pendingMatch) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com ID: " + id));
+        requireMatch(pendingMatch, EntityTags.of(existingProduct.getVersion()));
 
+        int previousQuantity = existingProduct.getQuantityStock();
         existingProduct.setQuantityStock(newQuantityStock);
-        return productRepository.save(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        domainMetrics.stockSet();
+        eventPublisher.publishEvent(new StockChangedEvent(
+                id, newQuantityStock - previousQuantity, newQuantityStock, saved.getVersion(), reason, StockValuation.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Para SKUs quentes o If-Match é conferido antes do evict, porque o flush dos deltas pendentes
+     * incrementa a versão no banco. Devolve o If-Match que ainda precisa ser conferido contra a
+     * versão carregada (null se já foi conferido ou se não havia).
+     */
+    private String checkHotPrecondition(Long id, String ifMatch) {
+        if (ifMatch == null || hotStockCounters.currentQuantity(id) == null) {
+            return ifMatch;
+        }
+        requireMatch(ifMatch, currentTag(id));
+        return null;
+    }
+
+    /**
+     * Ponto de reposição informado pelo cliente: null (usa o da categoria) ou não negativo.
+     */
+    public static Integer validReorderThreshold(Integer reorderThreshold) {
+        if (reorderThreshold != null && reorderThreshold < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O ponto de reposição não pode ser negativo.");
+        }
+        return reorderThreshold;
+    }
+
+    private static void requireMatch(String ifMatch, String currentTag) {
+        if (ifMatch != null && !EntityTags.matches(ifMatch, currentTag)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "O produto foi alterado desde a última leitura (ETag atual: " + currentTag + ")");
+        }
+    }
+
+    /**
+     * Aplica uma movimentação relativa de estoque de forma atômica.
+     * O UPDATE condicional soma o delta no próprio banco, então movimentações concorrentes sobre o
+     * mesmo produto não se perdem; a trava da linha vale até o commit, e por isso a transação só
+     * relê o valor resultante e termina, sem outro trabalho entre o UPDATE e o commit.
+     * SKUs no modo quente são movimentados só em memória (ver HotStockCounters), sem ir ao banco; o
+     * StockChangedEvent deles sai no flush, um por SKU com a soma dos deltas, e não por movimentação.
+     */
+    public StockLevelResponse applyStockDelta(Long id, int delta, String reason) {
+        return hotStockCounters.move(id, delta, hotQuantity -> {
+            domainMetrics.stockMoved();
+            return new StockLevelResponse(id, hotQuantity, null);
+        }, () -> applyStockDeltaInDatabase(id, delta, reason));
+    }
+
+    private StockLevelResponse applyStockDeltaInDatabase(Long id, int delta, String reason) {
+        StockLevelRow level = new TransactionTemplate(transactionManager).execute(status -> {
+            if (productRepository.applyStockDelta(id, delta) == 0) {
+                if (!productRepository.existsById(id)) {
+                    throw new EntityNotFoundException("Produto não encontrado com ID: " + id);
+                }
+                domainMetrics.negativeStockRejected();
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Estoque insuficiente para a movimentação de " + delta + " no produto " + id);
+            }
+            return productRepository.findStockLevelById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Produto não encontrado com ID: " + id));
+        });
+        domainMetrics.stockMoved();
+        eventPublisher.publishEvent(new StockChangedEvent(
+                id, delta, level.quantityStock(), level.version(), reason, level.valuation()));
+        return level.response();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.shulkerbox.service;
+
+import com.shulkerbox.dto.StockBatchItem;
+import com.shulkerbox.dto.StockBatchResult;
+import com.shulkerbox.dto.StockBatchResult.ItemResult;
+import com.shulkerbox.dto.StockBatchResult.Status;
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.event.StockValuation;
+import com.shulkerbox.metrics.DomainMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Atualização de estoque em lote para as conciliações do armazém.
+ *
+ * <p>Tudo acontece em uma transação e direto em JDBC, sem carregar entidades: um SELECT ... FOR UPDATE
+ * por bloco de "IDs" trava as linhas e traz saldo e versão, os itens são aplicados em memória na ordem
+ * recebida (um mesmo "ID" pode aparecer mais de uma vez) e os saldos finais vão num único UPDATE em lote.
+ * Itens que deixariam o saldo negativo são recusados sem afetar os demais.
+ */
+@Service
+public class StockBatchService {
+
+    // Tamanho de cada "IN (...)" do SELECT de trava
+    private static final int SELECT_CHUNK = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private HotStockCounters hotStockCounters;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private DomainMetrics domainMetrics;
+
+    @Value("${shulkerbox.stock-batch.max-items:10000}")
+    private int maxItems;
+
+    /**
+     * Saldo, versão e grupos de um produto durante o lote; "original" guarda o saldo antes do lote e "reason"
+     * o motivo do último item aplicado a ele (vários itens do mesmo produto viram uma movimentação só).
+     */
+    private static final class StockRow {
+        private final int original;
+        private int quantity;
+        private final long version;
+        private final StockValuation valuation;
+        private boolean changed;
+        private String reason;
+
+        private StockRow(int quantity, long version, StockValuation valuation) {
+            this.original = quantity;
+            this.quantity = quantity;
+            this.version = version;
+            this.valuation = valuation;
+        }
+    }
+
+    public StockBatchResult apply(List<StockBatchItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe ao menos um item.");
+        }
+        if (items.size() > maxItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Máximo de " + maxItems + " itens por lote (recebidos " + items.size() + ").");
+        }
+
+        TreeSet<Long> ids = new TreeSet<>(); // Ordenados: as travas são sempre tomadas na mesma ordem
+        for (StockBatchItem item : items) {
+            if (item != null && item.getId() != null) {
+                ids.add(item.getId());
+            }
+        }
+        // Valores absolutos e deltas do lote prevalecem sobre movimentações pendentes em memória
+        List<ItemResult> results = new ArrayList<>(items.size());
+        Map<Long, StockRow> rows = hotStockCounters.withoutHotMode(ids, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            Map<Long, StockRow> locked = lockRows(new ArrayList<>(ids));
+            for (StockBatchItem item : items) {
+                results.add(applyItem(item, locked));
+            }
+            List<Object[]> updates = new ArrayList<>();
+            locked.forEach((id, row) -> {
+                if (row.changed) {
+                    updates.add(new Object[]{row.quantity, id});
+                }
+            });
+            jdbcTemplate.batchUpdate("update products set quantity_stock = ?, version = version + 1 where id = ?", updates);
+            return locked;
+        }));
+
+        // Versão final de cada produto alterado, e os eventos só depois do commit
+        long updated = 0;
+        long notFound = 0;
+        long rejected = 0;
+        for (int i = 0; i < results.size(); i++) {
+            ItemResult result = results.get(i);
+            switch (result.status()) {
+                case UPDATED -> {
+                    updated++;
+                    results.set(i, new ItemResult(result.id(), result.status(), result.quantityStock(),
+                            rows.get(result.id()).version + 1, null));
+                }
+                case NOT_FOUND -> notFound++;
+                case REJECTED -> rejected++;
+            }
+        }
+        rows.forEach((id, row) -> {
+            if (row.changed) {
+                eventPublisher.publishEvent(new StockChangedEvent(
+                        id, row.quantity - row.original, row.quantity, row.version + 1, row.reason, row.valuation));
+            }
+        });
+        return new StockBatchResult(items.size(), updated, notFound, rejected, Collections.unmodifiableList(results));
+    }
+
+    private Map<Long, StockRow> lockRows(List<Long> ids) {
+        Map<Long, StockRow> rows = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += SELECT_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + SELECT_CHUNK, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("select id, quantity_stock, version, category_id, supplier_id, price from products where id in (" + placeholders
+                            + ") order by id for update",
+                    rs -> {
+                        rows.put(rs.getLong("id"), new StockRow(rs.getInt("quantity_stock"), rs.getLong("version"),
+                                new StockValuation(rs.getLong("category_id"), rs.getLong("supplier_id"), rs.getDouble("price"))));
+                    },
+                    chunk.toArray());
+        }
+        return rows;
+    }
+
+    private ItemResult applyItem(StockBatchItem item, Map<Long, StockRow> rows) {
+        if (item == null || item.getId() == null) {
+            return new ItemResult(null, Status.REJECTED, null, null, "Item sem \"id\".");
+        }
+        Long id = item.getId();
+        if ((item.getQuantityStock() == null) == (item.getDelta() == null)) {
+            return new ItemResult(id, Status.REJECTED, null, null, "Informe quantityStock ou delta (apenas um).");
+        }
+        StockRow row = rows.get(id);
+        if (row == null) {
+            return new ItemResult(id, Status.NOT_FOUND, null, null, null);
+        }
+        int target = item.getQuantityStock() != null ? item.getQuantityStock() : row.quantity + item.getDelta();
+        if (target < 0) {
+            domainMetrics.negativeStockRejected();
+            return new ItemResult(id, Status.REJECTED, row.quantity, null,
+                    "O estoque ficaria negativo (" + target + ").");
+        }
+        row.quantity = target;
+        row.changed = true;
+        if (item.getReason() != null) {
+            row.reason = item.getReason();
+        }
+        if (item.getQuantityStock() != null) {
+            domainMetrics.stockSet();
+        } else {
+            domainMetrics.stockMoved();
+        }
+        return new ItemResult(id, Status.UPDATED, target, null, null);
+    }
+}
@@ -1,10 +1,22 @@
 package com.shulkerbox.service;
 
+import com.shulkerbox.config.CacheConfig;
+import com.shulkerbox.dto.CursorPage;
+import com.shulkerbox.event.ProductChangedEvent.ChangeType;
+import com.shulkerbox.event.SupplierChangedEvent;
 import com.shulkerbox.model.Supplier;
 import com.shulkerbox.repository.SupplierRepository;
 import jakarta.persistence.EntityNotFoundException; // Importar
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,20 +26,41 @@ public class SupplierService {
 
     @Autowired // Injeta automaticamente uma instância de FornecedorRepository.
     private SupplierRepository supplierRepository;
+    @Autowired // Nome do fornecedor aparece nas listagens de produtos
+    private CatalogVersion catalogVersion;
+    @Autowired // Índice de autocompletar (nome e CNPJ) acompanha as gravações
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${shulkerbox.pagination.max-limit:1000}") // Teto rígido de itens por página.
+    private int maxLimit;
 
     /**
      * Retorna uma lista de todos os fornecedores.
      */
+    @Transactional(readOnly = true)
     public List<Supplier> listAll() {
         return supplierRepository.findAll();
     }
 
+    /**
+     * Retorna uma página de fornecedores a partir do cursor (último "ID" já recebido).
+     */
+    @Cacheable(cacheNames = CacheConfig.SUPPLIER_PAGES, key = "#after + ':' + #limit")
+    @Transactional(readOnly = true)
+    public CursorPage<Supplier> listPage(Long after, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit, maxLimit);
+        List<Supplier> rows = supplierRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : 0L, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Supplier::getId);
+    }
+
     /**
      * Busca um fornecedor pelo "ID".
      * Retorna o fornecedor ou null se não encontrado.
      * @deprecated Prefira usar findByIdOptional() para melhor tratamento de valores nulos
      */
     @Deprecated
+    @Transactional(readOnly = true)
     public Supplier findById(Long id) {
         return supplierRepository.findById(id).orElse(null);
     }
@@ -35,7 +68,10 @@ public class SupplierService {
     /**
      * Busca um fornecedor pelo "ID" retornando um Optional.
      * Método preferido para evitar NullPointerException.
+     * O resultado fica no cache de dados de referência (fornecedores inexistentes não são guardados).
      */
+    @Cacheable(cacheNames = CacheConfig.SUPPLIERS, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<Supplier> findByIdOptional(Long id) {
         return supplierRepository.findById(id);
     }
@@ -43,19 +79,26 @@ public class SupplierService {
     /**
      * Salva um novo fornecedor ou atualiza um existente.
      */
+    @CacheEvict(cacheNames = {CacheConfig.SUPPLIERS, CacheConfig.SUPPLIER_PAGES}, allEntries = true)
     public Supplier save(Supplier supplier) {
-        return supplierRepository.save(supplier);
+        ChangeType type = supplier.getId() == null ? ChangeType.CREATED : ChangeType.UPDATED;
+        Supplier saved = supplierRepository.save(supplier);
+        eventPublisher.publishEvent(new SupplierChangedEvent(type, saved.getId(), saved));
+        return saved;
     }
 
     /**
      * Exclui um fornecedor pelo ID.
      */
+    @CacheEvict(cacheNames = {CacheConfig.SUPPLIERS, CacheConfig.SUPPLIER_PAGES}, allEntries = true)
     public void deleteById(Long id) {
         // Adicionando verificação se o fornecedor existe antes de tentar excluir
         if (!supplierRepository.existsById(id)) {
             throw new EntityNotFoundException("Fornecedor não encontrado com ID: " + id);
         }
         supplierRepository.deleteById(id);
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new SupplierChangedEvent(ChangeType.DELETED, id, null));
     }
 
     /**
@@ -67,11 +110,17 @@ public class SupplierService {
 
     /**
      * Atualiza um fornecedor existente.
-     * Adicione este método se ainda não tiver um para PUT.
+     * Com ifMatch (cabeçalho If-Match), recusa com 412 se o fornecedor mudou desde a leitura do cliente.
      */
-    public Supplier update(Long id, Supplier updatedSupplier) {
-        return supplierRepository.findById(id)
+    @CacheEvict(cacheNames = {CacheConfig.SUPPLIERS, CacheConfig.SUPPLIER_PAGES}, allEntries = true)
+    public Supplier update(Long id, Supplier updatedSupplier, String ifMatch) {
+        Supplier saved = supplierRepository.findById(id)
                 .map(existingSupplier -> {
+                    String currentTag = EntityTags.of(existingSupplier.getVersion());
+                    if (ifMatch != null && !EntityTags.matches(ifMatch, currentTag)) {
+                        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                                "O fornecedor foi alterado desde a última leitura (ETag atual: " + currentTag + ")");
+                    }
                     existingSupplier.setName(updatedSupplier.getName());
                     existingSupplier.setCnpj(updatedSupplier.getCnpj());
                     existingSupplier.setTelefone(updatedSupplier.getTelefone());
@@ -79,5 +128,8 @@ public class SupplierService {
                     return supplierRepository.save(existingSupplier);
                 })
                 .orElseThrow(() -> new EntityNotFoundException("Fornecedor não encontrado com ID: " + id));
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new SupplierChangedEvent(ChangeType.UPDATED, id, saved));
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+-- Esquema original, igual ao que o ddl-auto=update gerava a partir das entidades antes do Flyway.
+-- Bancos já existentes (criados pelo ddl-auto) entram como baseline na versão 1 e pulam este script,
+-- ver spring.flyway.baseline-on-migrate em application-prod.properties; o que mudou depois fica em V2.
+-- Mudanças de esquema daqui em diante: novo arquivo V<n>__descricao.sql, nunca editar um já aplicado.
+
+create table categories (
+    id   bigint generated by default as identity,
+    name varchar(255) not null,
+    constraint pk_categories primary key (id),
+    constraint uk_categories_name unique (name)
+);
+
+create table suppliers (
+    id       bigint generated by default as identity,
+    name     varchar(255) not null,
+    cnpj     varchar(255) not null,
+    telefone varchar(255) not null,
+    email    varchar(255),
+    constraint pk_suppliers primary key (id),
+    constraint uk_suppliers_cnpj unique (cnpj)
+);
+
+create table products (
+    id             bigint generated by default as identity,
+    name           varchar(255) not null,
+    description    text,
+    price          double precision not null,
+    category_id    bigint not null,
+    quantity_stock integer not null,
+    supplier_id    bigint not null,
+    constraint pk_products primary key (id),
+    constraint fk_products_category foreign key (category_id) references categories (id),
+    constraint fk_products_supplier foreign key (supplier_id) references suppliers (id)
+);
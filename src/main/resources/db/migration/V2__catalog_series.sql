@@ -0,0 +1,37 @@
+-- Mudanças de esquema feitas enquanto o banco ainda era gerado pelo ddl-auto=update.
+-- Os "if not exists" deixam passar bancos em que o ddl-auto já tinha criado parte delas.
+
+-- Product.id passa a vir de sequence com incremento 50 (allocationSize), para os INSERTs saírem em lote.
+-- A sequence começa depois do maior "ID" já gravado; a identity da coluna fica, mas o Hibernate não a usa mais
+create sequence if not exists products_seq start with 1 increment by 50;
+select setval('products_seq', (select coalesce(max(id), 1) from products));
+
+-- Versionamento otimista (ETag/If-Match): linhas existentes começam na versão 0
+alter table categories add column if not exists version bigint default 0 not null;
+alter table suppliers add column if not exists version bigint default 0 not null;
+alter table products add column if not exists version bigint default 0 not null;
+
+-- Pontos de reposição: do produto ou, sem ele, o padrão da categoria
+alter table categories add column if not exists default_reorder_threshold integer;
+alter table products add column if not exists reorder_threshold integer;
+
+-- Índices das consultas filtradas e do alerta de estoque baixo
+create index if not exists idx_products_category_price on products (category_id, price);
+create index if not exists idx_products_supplier_price on products (supplier_id, price);
+create index if not exists idx_products_quantity_stock on products (quantity_stock);
+
+-- Histórico de movimentações: só recebe INSERTs e sem FK para products, o histórico sobrevive à exclusão
+create table if not exists stock_movements (
+    id             bigint generated by default as identity,
+    product_id     bigint not null,
+    delta          integer not null,
+    quantity_stock integer not null,
+    reason         varchar(255),
+    created_at     timestamp(6) with time zone not null,
+    constraint pk_stock_movements primary key (id)
+);
+
+-- O histórico é paginado por (created_at, id): o "ID" entra no fim dos índices para que a ordem
+-- e o cursor saiam direto do índice, sem ordenar as linhas do período
+create index if not exists idx_stock_movements_product_created on stock_movements (product_id, created_at, id);
+create index if not exists idx_stock_movements_created on stock_movements (created_at, id);
@@ -0,0 +1,48 @@
+package com.shulkerbox.ledger;
+
+import com.shulkerbox.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockLedgerTest {
+
+    private static final Instant FROM = Instant.parse("2024-01-01T10:00:00Z");
+    private static final Instant TO = Instant.parse("2024-01-02T10:00:00Z");
+
+    private final StockMovementRepository stockMovementRepository = mock(StockMovementRepository.class);
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new StockLedger();
+        ReflectionTestUtils.setField(ledger, "stockMovementRepository", stockMovementRepository);
+        ReflectionTestUtils.setField(ledger, "maxLimit", 1000);
+        when(stockMovementRepository.findInPeriod(any(), any(Long.class), any(), any(Limit.class))).thenReturn(List.of());
+    }
+
+    @Test
+    void cursorAtTheStartOfThePeriodIsKept() {
+        ledger.history(null, FROM, TO, new StockLedger.Cursor(FROM, 42L), 10);
+
+        // Movimentações no mesmo instante de from e "ID" até 42 já foram entregues na página anterior
+        verify(stockMovementRepository).findInPeriod(eq(FROM), eq(42L), eq(TO), any(Limit.class));
+    }
+
+    @Test
+    void cursorBeforeThePeriodStartsAtFrom() {
+        ledger.history(null, FROM, TO, new StockLedger.Cursor(FROM.minusSeconds(1), 42L), 10);
+
+        verify(stockMovementRepository).findInPeriod(eq(FROM), eq(0L), eq(TO), any(Limit.class));
+    }
+}
@@ -0,0 +1,193 @@
+package com.shulkerbox.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Dois H2 em memória no papel de primário e réplica (sem replicação entre eles: o que só existe em um
+ * dos bancos mostra para onde a leitura foi), mais uma réplica inalcançável que deve sair do rodízio.
+ * Os dois bancos começam como um banco antigo, criado pelo ddl-auto com o esquema original e sem histórico
+ * do Flyway, e sobem pelo mesmo caminho de produção (baseline na versão 1 e migrações seguintes).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String DEAD_REPLICA_URL = "jdbc:h2:tcp://localhost:1/routing-dead";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        // O primário é migrado pelo Flyway da aplicação; a réplica, aqui, antes da subida
+        legacyDatabase(PRIMARY_URL);
+        legacyDatabase(REPLICA_URL);
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        registry.add("spring.datasource.url", () -> PRIMARY_URL);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.flyway.baseline-on-migrate", () -> "true");
+        registry.add("spring.flyway.baseline-version", () -> "1");
+        registry.add("shulkerbox.datasource.routing.enabled", () -> "true");
+        registry.add("shulkerbox.datasource.routing.replica-urls", () -> REPLICA_URL + "," + DEAD_REPLICA_URL);
+        registry.add("shulkerbox.datasource.routing.replica-connection-timeout-ms", () -> "250");
+    }
+
+    /**
+     * Esquema original (V1, sem passar pelo Flyway) com produtos numerados pela identity.
+     */
+    private static void legacyDatabase(String url) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // O H2 não tem o setval do PostgreSQL, usado pela V2: o próximo nextval devolve valor + incremento
+        jdbc.execute("""
+                CREATE ALIAS IF NOT EXISTS setval AS $$
+                long setval(java.sql.Connection connection, String sequence, long value) throws java.sql.SQLException {
+                    connection.createStatement().execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (value + 50));
+                    return value;
+                }
+                $$""");
+        jdbc.update("INSERT INTO categories (name) VALUES ('Legado')");
+        jdbc.update("INSERT INTO suppliers (name, cnpj, telefone) VALUES ('Fornecedor legado', '11111111000111', '1100000000')");
+        for (int i = 1; i <= 3; i++) {
+            jdbc.update("INSERT INTO products (name, price, category_id, quantity_stock, supplier_id) VALUES (?, 10.0, 1, 5, 1)",
+                    "Produto legado " + i);
+        }
+    }
+
+    /**
+     * Requisição vinda do endereço informado, que é o que identifica o cliente no roteamento.
+     */
+    private static RequestPostProcessor client(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static JdbcTemplate replica() {
+        return new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @Test
+    void readOnlyLookupsAreServedByTheReplica() throws Exception {
+        replica().update("INSERT INTO categories (id, name, version) VALUES (900, 'Só na réplica', 0)");
+
+        mockMvc.perform(get("/api/categories/900").with(client("10.0.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Só na réplica"));
+    }
+
+    @Test
+    void writerReadsItsOwnWriteFromPrimaryWhileOthersStayOnReplica() throws Exception {
+        String body = mockMvc.perform(post("/api/suppliers").with(client("10.0.0.2"))
+                        .contentType("application/json")
+                        .content("{\"name\":\"Fornecedor novo\",\"cnpj\":\"12345678000199\",\"telefone\":\"1199999999\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = Long.parseLong(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        // A réplica não recebe a escrita: outro cliente ainda não vê o fornecedor, quem gravou já vê
+        mockMvc.perform(get("/api/suppliers/" + id).with(client("10.0.0.3")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/suppliers/" + id).with(client("10.0.0.2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Fornecedor novo"));
+    }
+
+    @Test
+    void listingsAreReadFromTheReplicaAndTaggedFromTheSameRead() throws Exception {
+        replica().update("INSERT INTO products (id, name, price, category_id, quantity_stock, supplier_id, version) "
+                + "VALUES (901, 'Só na réplica', 1.0, 1, 1, 1, 0)");
+
+        String eTag = mockMvc.perform(get("/api/products").param("after", "900").param("limit", "1").with(client("10.0.0.4")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(901))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products").param("after", "900").param("limit", "1").with(client("10.0.0.4"))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        // Alteração que só a réplica vê: o ETag acompanha os dados dela
+        replica().update("UPDATE products SET quantity_stock = 2, version = 1 WHERE id = 901");
+        mockMvc.perform(get("/api/products").param("after", "900").param("limit", "1").with(client("10.0.0.4"))
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantityStock").value(2));
+        mockMvc.perform(get("/api/products/query").param("minPrice", "0").with(client("10.0.0.4")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 901)]").isNotEmpty());
+    }
+
+    @Test
+    void upgradedDatabaseKeepsLegacyRowsAndNumbersNewProductsAfterThem() throws Exception {
+        // Linhas antigas ganharam a versão 0 e seguem editáveis
+        mockMvc.perform(patch("/api/products/3/stock").with(client("10.0.0.5"))
+                        .contentType("application/json")
+                        .content("{\"quantityStock\":7}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantityStock").value(7))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // A sequence começa depois dos "IDs" gerados pela identity
+        String body = mockMvc.perform(post("/api/products").with(client("10.0.0.5"))
+                        .contentType("application/json")
+                        .content("{\"name\":\"Produto novo\",\"price\":5.0,\"quantityStock\":1,\"categoryId\":1,\"supplierId\":1}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(Long.parseLong(body.replaceAll(".*?\"id\":(\\d+).*", "$1")) > 3);
+    }
+
+    @Test
+    void unreachableReplicaLeavesTheRotation() throws Exception {
+        replicaRoutingDataSource.checkReplicas();
+        assertEquals(1, replicaRoutingDataSource.healthyReplicas());
+        replica().update("INSERT INTO products (id, name, price, category_id, quantity_stock, supplier_id, version) "
+                + "VALUES (902, 'Réplica viva', 1.0, 1, 1, 1, 0)");
+        double replicaReads = reads("replica");
+        double fallbackReads = reads("no_healthy_replica");
+
+        // Com a réplica morta no rodízio, metade das leituras cairia no primário, que não tem o produto
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/api/products/query").param("minPrice", "0").with(client("10.0.1." + i)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.id == 902)].name").value("Réplica viva"));
+        }
+        assertEquals(fallbackReads, reads("no_healthy_replica"));
+        assertTrue(reads("replica") >= replicaReads + 4);
+    }
+
+    private double reads(String reason) {
+        return meterRegistry.get("shulkerbox.datasource.routing.reads").tag("reason", reason).counter().count();
+    }
+}
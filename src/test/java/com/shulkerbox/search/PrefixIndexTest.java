@@ -0,0 +1,55 @@
+package com.shulkerbox.search;
+
+import com.shulkerbox.dto.AutocompleteSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixIndexTest {
+
+    @Test
+    void completeMatchesWordStartsIgnoringAccentsInAlphabeticalOrder() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1L, "Caneca térmica inox", null, List.of("Caneca térmica inox"));
+        index.put(2L, "Garrafa Térmica", null, List.of("Garrafa Térmica"));
+        index.put(3L, "Termômetro digital", null, List.of("Termômetro digital"));
+        index.put(4L, "Protetor solar", null, List.of("Protetor solar"));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(index.complete("TERM", 10)));
+        assertEquals(List.of(1L), ids(index.complete("térmica in", 10)));
+        assertTrue(index.complete("etor", 10).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveReplaceTheItemKeys() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1L, "Lanterna LED", null, List.of("Lanterna LED"));
+        index.put(1L, "Lanterna halógena", "modelo novo", List.of("Lanterna halógena"));
+
+        assertTrue(index.complete("led", 10).isEmpty());
+        assertEquals(List.of(new AutocompleteSuggestion(1L, "Lanterna halógena", "modelo novo")),
+                index.complete("halogena", 10));
+
+        index.remove(1L);
+        assertTrue(index.complete("lanterna", 10).isEmpty());
+        assertEquals(new PrefixIndex.Stats(0, 0, 0), index.stats());
+    }
+
+    @Test
+    void completeStopsAtTheLimitCountingEachItemOnce() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1L, "Sabão sabonete", null, List.of("Sabão sabonete"));
+        index.put(2L, "Sabonete líquido", null, List.of("Sabonete líquido"));
+        index.put(3L, "Saboneteira", null, List.of("Saboneteira"));
+
+        assertEquals(List.of(1L, 2L), ids(index.complete("sab", 2)));
+        assertTrue(index.complete("sab", 0).isEmpty());
+    }
+
+    private static List<Long> ids(List<AutocompleteSuggestion> suggestions) {
+        return suggestions.stream().map(AutocompleteSuggestion::id).toList();
+    }
+}
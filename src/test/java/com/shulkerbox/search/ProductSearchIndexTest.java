@@ -0,0 +1,48 @@
+package com.shulkerbox.search;
+
+import com.shulkerbox.dto.ProductSearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void searchIgnoresAccentsAndRanksNameAboveDescription() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(1L, "Pão de Açúcar", "Pão doce tradicional");
+        index.index(2L, "Bolo de cenoura", "Com cobertura de açúcar");
+        index.index(3L, "Café torrado", null);
+
+        List<ProductSearchHit> hits = index.search("acucar", 10);
+
+        assertEquals(List.of(1L, 2L), hits.stream().map(ProductSearchHit::id).toList());
+    }
+
+    @Test
+    void searchRequiresAllTermsAndMatchesLastTermByPrefix() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(1L, "Caneca térmica inox", null);
+        index.index(2L, "Caneca de porcelana", null);
+
+        assertEquals(List.of(1L), index.search("caneca ter", 10).stream().map(ProductSearchHit::id).toList());
+        assertTrue(index.search("porcelana inox", 10).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveKeepPostingsConsistent() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(1L, "Lanterna LED", null);
+        index.index(1L, "Lanterna halógena", null);
+
+        assertTrue(index.search("led", 10).isEmpty());
+        assertEquals(1, index.search("halogena", 10).size());
+
+        index.remove(1L);
+        assertTrue(index.search("lanterna", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
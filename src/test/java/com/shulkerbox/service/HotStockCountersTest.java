@@ -0,0 +1,279 @@
+package com.shulkerbox.service;
+
+import com.shulkerbox.event.StockChangedEvent;
+import com.shulkerbox.event.StockValuation;
+import com.shulkerbox.metrics.DomainMetrics;
+import com.shulkerbox.repository.ProductRepository;
+import com.shulkerbox.repository.StockLevelRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotStockCountersTest {
+
+    private static final Long SKU = 1L;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final DomainMetrics domainMetrics = mock(DomainMetrics.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private HotStockCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new HotStockCounters();
+        ReflectionTestUtils.setField(counters, "productRepository", productRepository);
+        ReflectionTestUtils.setField(counters, "transactionManager", new NoOpTransactionManager());
+        ReflectionTestUtils.setField(counters, "domainMetrics", domainMetrics);
+        ReflectionTestUtils.setField(counters, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(counters, "enabled", true);
+        ReflectionTestUtils.setField(counters, "pinnedSkus", Set.of(SKU));
+        ReflectionTestUtils.setField(counters, "autoDetectThreshold", 0L);
+        ReflectionTestUtils.setField(counters, "idleTimeoutMs", 60_000L);
+    }
+
+    @Test
+    void acknowledgedDeltasReachTheDatabaseAcrossConcurrentFlushesAndEvict() throws Exception {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(1_000_000));
+        AtomicLong written = new AtomicLong();
+        when(productRepository.applyStockDelta(eq(SKU), anyInt())).thenAnswer(call -> {
+            written.addAndGet(call.<Integer>getArgument(1));
+            return 1;
+        });
+        counters.refreshHotSet();
+
+        AtomicLong acknowledged = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                while (running.get()) {
+                    if (counters.tryApply(SKU, -1) != null) {
+                        acknowledged.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            while (running.get()) {
+                counters.flushAll();
+            }
+        }));
+        threads.forEach(Thread::start);
+        Thread.sleep(100);
+        counters.evict(SKU);
+        Thread.sleep(20);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(counters.isHot(SKU));
+        assertTrue(acknowledged.get() > 0);
+        assertEquals(-acknowledged.get(), written.get());
+    }
+
+    @Test
+    void evictWaitsForAFlushInProgress() throws Exception {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(100));
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        AtomicLong written = new AtomicLong();
+        when(productRepository.applyStockDelta(eq(SKU), anyInt())).thenAnswer(call -> {
+            flushStarted.countDown();
+            releaseFlush.await(5, TimeUnit.SECONDS);
+            written.addAndGet(call.<Integer>getArgument(1));
+            return 1;
+        });
+        counters.refreshHotSet();
+        counters.tryApply(SKU, -10);
+
+        Thread flusher = new Thread(counters::flushAll);
+        flusher.start();
+        assertTrue(flushStarted.await(5, TimeUnit.SECONDS));
+        counters.tryApply(SKU, -5); // Entra em pending durante o flush
+        Thread evictor = new Thread(() -> counters.evict(SKU));
+        evictor.start();
+        evictor.join(200);
+        assertTrue(evictor.isAlive());
+
+        releaseFlush.countDown();
+        flusher.join();
+        evictor.join();
+
+        assertEquals(-15, written.get());
+        assertNull(counters.tryApply(SKU, -1));
+    }
+
+    @Test
+    void promotionWaitsForADatabaseMovementSoTheHotBalanceCannotOversell() throws Exception {
+        AtomicInteger stored = new AtomicInteger(10);
+        when(productRepository.findQuantityStockById(SKU)).thenAnswer(call -> Optional.of(stored.get()));
+        when(productRepository.applyStockDelta(eq(SKU), anyInt())).thenAnswer(call -> {
+            int delta = call.getArgument(1);
+            return stored.get() + delta >= 0 && stored.addAndGet(delta) >= 0 ? 1 : 0;
+        });
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+
+        Thread writer = new Thread(() -> counters.move(SKU, -8, quantity -> "memória", () -> {
+            writeStarted.countDown();
+            try {
+                releaseWrite.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stored.addAndGet(-8); // Commit depois de a promoção começar
+            return "banco";
+        }));
+        writer.start();
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        Thread promoter = new Thread(counters::refreshHotSet);
+        promoter.start();
+        promoter.join(100);
+        assertTrue(promoter.isAlive());
+        assertFalse(counters.isHot(SKU));
+
+        releaseWrite.countDown();
+        writer.join();
+        promoter.join();
+
+        assertEquals(2, counters.currentQuantity(SKU));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> counters.tryApply(SKU, -3));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(0, counters.tryApply(SKU, -2));
+        counters.flushAll();
+
+        assertEquals(0, stored.get());
+        verify(domainMetrics, never()).hotStockOversold(anyLong());
+    }
+
+    @Test
+    void stripedBudgetsNeverHandOutMoreThanTheStock() throws Exception {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(10_000));
+        counters.refreshHotSet();
+
+        AtomicLong acknowledged = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                while (true) {
+                    try {
+                        counters.tryApply(SKU, -3);
+                        acknowledged.addAndGet(3);
+                    } catch (ResponseStatusException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(9_999, acknowledged.get());
+        assertEquals(1, counters.currentQuantity(SKU));
+    }
+
+    @Test
+    void hotMovementsPublishOneEventPerFlush() {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(10));
+        when(productRepository.applyStockDelta(SKU, -3)).thenReturn(1);
+        when(productRepository.findStockLevelById(SKU)).thenReturn(Optional.of(new StockLevelRow(SKU, 7, 4L, 2L, 3L, 1.5)));
+        counters.refreshHotSet();
+        counters.tryApply(SKU, -1);
+        counters.tryApply(SKU, -2);
+
+        counters.flushAll();
+        counters.flushAll();
+
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        verify(eventPublisher).publishEvent(new StockChangedEvent(
+                SKU, -3, 7, 4L, HotStockCounters.FLUSH_REASON, new StockValuation(2L, 3L, 1.5)));
+    }
+
+    @Test
+    void zeroRowsForADeletedProductLeavesHotMode() {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(10), Optional.empty());
+        when(productRepository.applyStockDelta(SKU, -3)).thenReturn(0);
+        counters.refreshHotSet();
+        counters.tryApply(SKU, -3);
+
+        counters.flushAll();
+
+        assertFalse(counters.isHot(SKU));
+    }
+
+    @Test
+    void movementAboveIntegerMaxIsRejected() {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(Integer.MAX_VALUE - 1));
+        counters.refreshHotSet();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> counters.tryApply(SKU, 5));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(Integer.MAX_VALUE, counters.tryApply(SKU, 1));
+    }
+
+    @Test
+    void pinnedSkuIsNotPromotedAgainWhileAnAbsoluteWriteRuns() {
+        when(productRepository.findQuantityStockById(SKU)).thenReturn(Optional.of(10));
+        counters.refreshHotSet();
+        assertTrue(counters.isHot(SKU));
+
+        counters.withoutHotMode(List.of(SKU), () -> {
+            counters.refreshHotSet();
+            assertFalse(counters.isHot(SKU));
+            return null;
+        });
+
+        counters.refreshHotSet();
+        assertTrue(counters.isHot(SKU));
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}